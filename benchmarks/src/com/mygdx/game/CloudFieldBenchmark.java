@@ -0,0 +1,68 @@
+package com.mygdx.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CloudFieldBenchmark {
+    private static final float STEP = 1f / SimulationClock.DEFAULT_TICK_RATE;
+
+    @Param({"1500", "20000", "100000"})
+    public int clouds;
+
+    @Param({"true", "false"})
+    public boolean parallel;
+
+    private CloudField field;
+    private RecordingBatch batch;
+
+    @Setup
+    public void setUp() {
+        field = new CloudField(clouds, 42L, 100, 45, Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+        field.setParallelThreshold(parallel ? 0 : Integer.MAX_VALUE);
+        batch = new RecordingBatch();
+    }
+
+    @Benchmark
+    public CloudField advance() {
+        field.advance(1.5f, -0.5f, STEP);
+        return field;
+    }
+
+    @Benchmark
+    public int draw() {
+        batch.reset();
+        batch.begin();
+        field.draw(batch, null, 0.5f);
+        batch.end();
+        return batch.getDrawCount();
+    }
+
+    // What CloudLayerCache submits per frame once its tiles are rendered
+    @Benchmark
+    public int drawCached() {
+        batch.reset();
+        batch.begin();
+        for (int layer = 0; layer < field.getLayerCount(); layer++) {
+            CloudLayerCache.drawScrolled(batch, null, field, layer, 0.5f);
+        }
+        batch.end();
+        return batch.getDrawCount();
+    }
+}
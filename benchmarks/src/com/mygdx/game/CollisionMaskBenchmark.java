@@ -0,0 +1,48 @@
+package com.mygdx.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CollisionMaskBenchmark {
+    private static final int POSITIONS = 1024;
+
+    private LevelLayout layout;
+    private final float[] x = new float[POSITIONS];
+    private final float[] y = new float[POSITIONS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Late enough for the most zones
+        layout = LevelLayout.generate(9, 42L);
+        Random random = new Random(1);
+        for (int i = 0; i < POSITIONS; i++) {
+            x[i] = random.nextFloat() * Simulation.WORLD_WIDTH;
+            y[i] = random.nextFloat() * Simulation.WORLD_HEIGHT;
+        }
+    }
+
+    // The test every simulation step makes for the zeppelin's hitbox
+    @Benchmark
+    public boolean noFlyLookup() {
+        next = (next + 1) & (POSITIONS - 1);
+        return layout.isInNoFlyZone(x[next], y[next], EnvironmentalManager.ZEPPELIN_WIDTH, EnvironmentalManager.ZEPPELIN_HEIGHT);
+    }
+}
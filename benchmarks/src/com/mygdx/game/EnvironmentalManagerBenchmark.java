@@ -0,0 +1,48 @@
+package com.mygdx.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EnvironmentalManagerBenchmark {
+    private static final float STEP = 1f / SimulationClock.DEFAULT_TICK_RATE;
+
+    @Param({"1", "10", "20", "100"})
+    public int level;
+
+    @Param({"true", "false"})
+    public boolean drift;
+
+    private EnvironmentalManager environment;
+    private Player player;
+
+    @Setup
+    public void setUp() {
+        LevelLayout layout = LevelLayout.generate(level, 42L);
+        environment = new EnvironmentalManager(layout, Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+        environment.getClouds().setDriftEnabled(drift);
+        player = new Player(layout.getStartX(), layout.getStartY());
+    }
+
+    @Benchmark
+    public EnvironmentalManager update() {
+        environment.update(player, STEP);
+        return environment;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sprites of one frame of a level as GameScreen submits them when the clouds are drawn one by
+ * one, from loose textures and from regions of the packed page. Flushes over frames is the number
+ * of draw calls a SpriteBatch makes for them: three from loose textures, one from the page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GameplayAtlasBenchmark {
+    @Param({"true", "false"})
+    public boolean packed;
+
+    private CloudField field;
+    private RecordingBatch batch;
+    private TextureRegion map;
+    private TextureRegion zeppelin;
+    private TextureRegion cloud;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DrawCalls {
+        public long flushes;
+        public long frames;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            flushes = 0;
+            frames = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        NullGL.install();
+        if (packed) {
+            // Where the packer puts them on a 2048 page
+            Texture page = NullGL.texture(2048, 2048);
+            map = new TextureRegion(page, 8, 8, 1577, 785);
+            cloud = new TextureRegion(page, 8, 801, 512, 260);
+            zeppelin = new TextureRegion(page, 1593, 8, 256, 83);
+        } else {
+            map = new TextureRegion(NullGL.texture(1577, 785));
+            cloud = new TextureRegion(NullGL.texture(3399, 1724));
+            zeppelin = new TextureRegion(NullGL.texture(620, 201));
+        }
+        LevelLayout layout = LevelLayout.generate(3, 42L);
+        field = new CloudField(layout.getCloudAnchorsX(), layout.getCloudAnchorsY(), 42L, 100, 45,
+                Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+        batch = new RecordingBatch();
+    }
+
+    @Benchmark
+    public int frame(DrawCalls drawCalls) {
+        batch.reset();
+        batch.begin();
+        batch.draw(map, 0, 0, 800, 600);
+        batch.draw(zeppelin, 200, 300, 45, 25);
+        batch.draw(zeppelin, 210, 290, 45, 25);
+        field.draw(batch, cloud, 0.5f);
+        batch.end();
+        drawCalls.flushes += batch.getFlushes();
+        drawCalls.frames++;
+        return batch.getDrawCount();
+    }
+}
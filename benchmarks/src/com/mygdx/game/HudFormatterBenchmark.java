@@ -0,0 +1,42 @@
+package com.mygdx.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HudFormatterBenchmark {
+    private final HudFormatter hud = new HudFormatter();
+    private float speed = 4.2f;
+    private float windX = 0.31f;
+    private float windY = -0.12f;
+    private float remaining = Simulation.MAX_GAME_TIME;
+
+    // Mirrors one GameScreen.updateUI call; the timer changes every frame, the other lines rarely do
+    @Benchmark
+    public void formatFrame(Blackhole blackhole) {
+        remaining -= 1f / 60f;
+        if (remaining < 0) {
+            remaining = Simulation.MAX_GAME_TIME;
+        }
+        blackhole.consume(hud.updateSpeed(speed));
+        blackhole.consume(hud.updateWind(windX, windY));
+        blackhole.consume(hud.updateTime(remaining));
+        blackhole.consume(hud.updateClouds(1500));
+        blackhole.consume(hud.getTimeText());
+    }
+}
@@ -0,0 +1,58 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PlayerBenchmark {
+    private static final float STEP = 1f / SimulationClock.DEFAULT_TICK_RATE;
+    private static final float START_X = 620;
+    private static final float START_Y = 500;
+
+    private final Vector2 wind = new Vector2(0.3f, -0.2f);
+    private Player player;
+
+    @Setup
+    public void setUp() {
+        player = new Player(START_X, START_Y);
+        player.startMoving();
+    }
+
+    @Benchmark
+    public Player update() {
+        player.update(STEP);
+        keepInBounds();
+        return player;
+    }
+
+    @Benchmark
+    public Player applyWindEffect() {
+        player.applyWindEffect(wind, STEP);
+        player.update(STEP);
+        keepInBounds();
+        return player;
+    }
+
+    private void keepInBounds() {
+        if (player.isOutOfBounds(0)) {
+            player.reset(START_X, START_Y);
+            player.startMoving();
+        }
+    }
+}
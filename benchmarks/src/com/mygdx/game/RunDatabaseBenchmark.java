@@ -0,0 +1,74 @@
+package com.mygdx.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RunDatabaseBenchmark {
+    private static final int LEVELS = 20;
+
+    @Param({"1000", "300000"})
+    public int runs;
+
+    private File directory;
+    private RunDatabase database;
+    private int level;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("run-database-benchmark").toFile();
+        database = RunDatabase.open(directory);
+        Random random = new Random(1);
+        for (int i = 0; i < runs; i++) {
+            Simulation.Outcome outcome = random.nextInt(3) == 0 ? Simulation.Outcome.TIMED_OUT : Simulation.Outcome.ARRIVED;
+            float elapsed = 20 + random.nextFloat() * 40;
+            int runLevel = 1 + random.nextInt(LEVELS);
+            database.record(new RunRecord(i, runLevel, outcome, ZeppelinSelection.ZEPPELIN_L19,
+                    elapsed, Simulation.MAX_GAME_TIME - elapsed, 600, LevelLayout.standardSeed(runLevel)));
+        }
+        database.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    // What the selection screen asks for: the fastest wins of a level and how often it was played
+    @Benchmark
+    public void leaderboard(Blackhole blackhole) {
+        level = level % LEVELS + 1;
+        blackhole.consume(database.getLeaderboard(level).get(0));
+        blackhole.consume(database.getRunCount(level));
+    }
+}
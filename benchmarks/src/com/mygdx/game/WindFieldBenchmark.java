@@ -0,0 +1,48 @@
+package com.mygdx.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WindFieldBenchmark {
+    @Param({"16", "32", "64"})
+    public int columns;
+
+    private WindField field;
+    private float x;
+
+    @Setup
+    public void setUp() {
+        field = new WindField(LevelLayout.generate(5, 42L), 42L, columns, Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+    }
+
+    // One period; with the default executor this computes the next generation on this thread
+    @Benchmark
+    public WindField generation() {
+        field.advance(WindField.PERIOD);
+        return field;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public float sample() {
+        x = x < Simulation.WORLD_WIDTH ? x + 7.3f : 0;
+        return field.sampleX(x, x * 0.75f) + field.sampleY(x, x * 0.75f);
+    }
+}
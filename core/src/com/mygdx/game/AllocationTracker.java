@@ -0,0 +1,100 @@
+package com.mygdx.game;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Debug counter for the bytes the current thread allocates between {@link #beginFrame()} and
+ * {@link #endFrame()}. The cost of the measurement itself is calibrated away, so a frame that
+ * allocates nothing reports zero.
+ */
+public class AllocationTracker {
+    private static final int CALIBRATION_ROUNDS = 16;
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final long threadId;
+    private final long overhead;
+    private long frameStart;
+    private long lastFrameBytes;
+    private long maxFrameBytes;
+    private long totalBytes;
+    private long frames;
+    private long allocatingFrames;
+
+    public AllocationTracker() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threadBean = null;
+        }
+        threadId = Thread.currentThread().getId();
+        overhead = calibrate();
+    }
+
+    private long calibrate() {
+        if (threadBean == null) {
+            return 0;
+        }
+        long smallest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = threadBean.getThreadAllocatedBytes(threadId);
+            long end = threadBean.getThreadAllocatedBytes(threadId);
+            smallest = Math.min(smallest, end - start);
+        }
+        return smallest;
+    }
+
+    public boolean isSupported() {
+        return threadBean != null;
+    }
+
+    public void beginFrame() {
+        if (threadBean != null) {
+            frameStart = threadBean.getThreadAllocatedBytes(threadId);
+        }
+    }
+
+    public void endFrame() {
+        if (threadBean == null) {
+            return;
+        }
+        long bytes = Math.max(0, threadBean.getThreadAllocatedBytes(threadId) - frameStart - overhead);
+        lastFrameBytes = bytes;
+        maxFrameBytes = Math.max(maxFrameBytes, bytes);
+        totalBytes += bytes;
+        frames++;
+        if (bytes > 0) {
+            allocatingFrames++;
+        }
+    }
+
+    public void reset() {
+        lastFrameBytes = 0;
+        maxFrameBytes = 0;
+        totalBytes = 0;
+        frames = 0;
+        allocatingFrames = 0;
+    }
+
+    public long getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    public long getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getAllocatingFrames() {
+        return allocatingFrames;
+    }
+}
@@ -0,0 +1,15 @@
+package com.mygdx.game;
+
+/**
+ * Where {@link AudioManager} sends its voices. Ids are the backend's own; -1 means nothing played.
+ */
+public interface AudioBackend {
+    long play(AudioManager.Cue cue, float volume, boolean loop);
+
+    void setVolume(AudioManager.Cue cue, long id, float volume);
+
+    void stop(AudioManager.Cue cue, long id);
+
+    // A one-shot has played out and its voice is free again; nothing needs stopping
+    void finished(AudioManager.Cue cue, long id);
+}
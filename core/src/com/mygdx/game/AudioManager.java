@@ -0,0 +1,246 @@
+package com.mygdx.game;
+
+/**
+ * Fixed pool of voices shared by every sound in the game. Each cue has a cap on how many of its
+ * voices may play at once; when the cap or the pool is full the oldest voice of the same cue, or
+ * else of the lowest priority no higher than the new one, is stolen. Loops are ramped towards a
+ * target volume instead of being restarted.
+ */
+public class AudioManager {
+    public enum Cue {
+        // path, voice cap, priority, length of the clip in seconds, which a one-shot holds its voice for
+        ENGINE("sounds/zeppelinSound.mp3", 1, 2, 0),
+        WIND("sounds/WindSound.mp3", 2, 1, 43.1f),
+        GAME_OVER("sounds/gameOverSound.mp3", 1, 3, 3.3f),
+        WIN("sounds/winSound.mp3", 1, 3, 11.4f);
+
+        final String path;
+        final int maxVoices;
+        final int priority;
+        final float duration;
+
+        Cue(String path, int maxVoices, int priority, float duration) {
+            this.path = path;
+            this.maxVoices = maxVoices;
+            this.priority = priority;
+            this.duration = duration;
+        }
+    }
+
+    public static final int DEFAULT_VOICES = 8;
+    // Volume change per second while ramping
+    private static final float RAMP_RATE = 0.5f;
+
+    private final AudioBackend backend;
+    private final Cue[] cue;
+    private final long[] id;
+    private final long[] startedAt;
+    private final float[] volume;
+    private final float[] target;
+    private final float[] remaining;
+    private final boolean[] looping;
+    private final boolean[] stopWhenSilent;
+    private final int[] voicesPerCue = new int[Cue.values().length];
+    private long sequence;
+
+    public AudioManager(AudioBackend backend, int voices) {
+        this.backend = backend;
+        this.cue = new Cue[voices];
+        this.id = new long[voices];
+        this.startedAt = new long[voices];
+        this.volume = new float[voices];
+        this.target = new float[voices];
+        this.remaining = new float[voices];
+        this.looping = new boolean[voices];
+        this.stopWhenSilent = new boolean[voices];
+    }
+
+    /**
+     * Plays a one-shot; returns false when every voice it could take is busy with something more important.
+     */
+    public boolean play(Cue cue, float volume) {
+        return start(cue, volume, volume, false) >= 0;
+    }
+
+    /**
+     * Starts the cue's loop unless it is already playing, in which case it only gets a new volume.
+     */
+    public void loop(Cue cue, float volume) {
+        int voice = findLoop(cue);
+        if (voice >= 0) {
+            this.volume[voice] = volume;
+            target[voice] = volume;
+            stopWhenSilent[voice] = false;
+            backend.setVolume(cue, id[voice], volume);
+        } else {
+            start(cue, volume, volume, true);
+        }
+    }
+
+    /**
+     * Ramps the cue's loop towards the volume, starting it silently first if needed.
+     */
+    public void fadeTo(Cue cue, float volume) {
+        int voice = findLoop(cue);
+        if (voice >= 0) {
+            target[voice] = volume;
+            stopWhenSilent[voice] = false;
+        } else if (volume > 0) {
+            start(cue, 0, volume, true);
+        }
+    }
+
+    // Ramps the cue's loop down and stops it once silent
+    public void fadeOut(Cue cue) {
+        int voice = findLoop(cue);
+        if (voice >= 0) {
+            target[voice] = 0;
+            stopWhenSilent[voice] = true;
+        }
+    }
+
+    public void stop(Cue cue) {
+        for (int voice = 0; voice < this.cue.length; voice++) {
+            if (this.cue[voice] == cue) {
+                release(voice);
+            }
+        }
+    }
+
+    public void stopAll() {
+        for (int voice = 0; voice < cue.length; voice++) {
+            if (cue[voice] != null) {
+                release(voice);
+            }
+        }
+    }
+
+    /**
+     * Advances volume ramps and frees one-shots that have finished.
+     */
+    public void update(float delta) {
+        float step = RAMP_RATE * delta;
+        for (int voice = 0; voice < cue.length; voice++) {
+            if (cue[voice] == null) {
+                continue;
+            }
+            if (!looping[voice]) {
+                remaining[voice] -= delta;
+                if (remaining[voice] <= 0) {
+                    // The clip has played out; the backend is told rather than asked to stop it
+                    backend.finished(cue[voice], id[voice]);
+                    free(voice);
+                }
+                continue;
+            }
+            float current = volume[voice];
+            if (current != target[voice]) {
+                float next = current < target[voice]
+                        ? Math.min(target[voice], current + step)
+                        : Math.max(target[voice], current - step);
+                volume[voice] = next;
+                backend.setVolume(cue[voice], id[voice], next);
+            }
+            if (stopWhenSilent[voice] && volume[voice] == 0) {
+                release(voice);
+            }
+        }
+    }
+
+    public int getActiveVoices() {
+        int active = 0;
+        for (int count : voicesPerCue) {
+            active += count;
+        }
+        return active;
+    }
+
+    public int getActiveVoices(Cue cue) {
+        return voicesPerCue[cue.ordinal()];
+    }
+
+    public int getVoiceCount() {
+        return cue.length;
+    }
+
+    private int start(Cue cue, float initialVolume, float targetVolume, boolean loop) {
+        int voice = allocate(cue);
+        if (voice < 0) {
+            return -1;
+        }
+        long playing = backend.play(cue, initialVolume, loop);
+        if (playing == -1) {
+            return -1;
+        }
+        this.cue[voice] = cue;
+        id[voice] = playing;
+        startedAt[voice] = sequence++;
+        volume[voice] = initialVolume;
+        target[voice] = targetVolume;
+        remaining[voice] = cue.duration;
+        looping[voice] = loop;
+        stopWhenSilent[voice] = false;
+        voicesPerCue[cue.ordinal()]++;
+        return voice;
+    }
+
+    private int allocate(Cue cue) {
+        if (voicesPerCue[cue.ordinal()] >= cue.maxVoices) {
+            return steal(oldest(cue));
+        }
+        for (int voice = 0; voice < this.cue.length; voice++) {
+            if (this.cue[voice] == null) {
+                return voice;
+            }
+        }
+        int victim = -1;
+        for (int voice = 0; voice < this.cue.length; voice++) {
+            int priority = this.cue[voice].priority;
+            if (priority > cue.priority) {
+                continue;
+            }
+            if (victim < 0 || priority < this.cue[victim].priority
+                    || (priority == this.cue[victim].priority && startedAt[voice] < startedAt[victim])) {
+                victim = voice;
+            }
+        }
+        return steal(victim);
+    }
+
+    private int oldest(Cue cue) {
+        int oldest = -1;
+        for (int voice = 0; voice < this.cue.length; voice++) {
+            if (this.cue[voice] == cue && (oldest < 0 || startedAt[voice] < startedAt[oldest])) {
+                oldest = voice;
+            }
+        }
+        return oldest;
+    }
+
+    private int steal(int voice) {
+        if (voice >= 0) {
+            release(voice);
+        }
+        return voice;
+    }
+
+    private int findLoop(Cue cue) {
+        for (int voice = 0; voice < this.cue.length; voice++) {
+            if (this.cue[voice] == cue && looping[voice]) {
+                return voice;
+            }
+        }
+        return -1;
+    }
+
+    private void release(int voice) {
+        backend.stop(cue[voice], id[voice]);
+        free(voice);
+    }
+
+    private void free(int voice) {
+        voicesPerCue[cue[voice].ordinal()]--;
+        cue[voice] = null;
+        id[voice] = 0;
+    }
+}
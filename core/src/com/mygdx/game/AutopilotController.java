@@ -0,0 +1,118 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Flies the plan produced by {@link RoutePlanner}. Planning runs on the given executor and the
+ * finished plan is published through an atomic reference, so {@link #nextInput} never waits: it
+ * follows the latest plan, asks for a new one when the flight drifts away from what the plan
+ * expected, and falls back to {@link ScriptedController} until the first plan arrives.
+ *
+ * With a direct executor such as {@code Runnable::run} planning happens inline and runs are
+ * reproducible, which is what the batch runner uses.
+ */
+public class AutopilotController implements SimulationController {
+    private static final float REPLAN_INTERVAL = 1f;
+    private static final float REPLAN_DISTANCE = 3f;
+    // Close to the destination without a plan that reaches it, creep in and hold the altitude directly
+    private static final float APPROACH_DISTANCE = 80f;
+    private static final float APPROACH_SPEED = 5f;
+    private static final float APPROACH_DEAD_BAND = 2f;
+    // Climbing or sinking is capped at the forward speed, so a steeper remaining slope than this cannot wait for the wind
+    private static final float MAX_APPROACH_SLOPE = 0.6f;
+
+    private final Executor executor;
+    private final RoutePlanner planner = new RoutePlanner();
+    private final AtomicReference<RoutePlan> plan = new AtomicReference<>();
+    private final AtomicBoolean planning = new AtomicBoolean();
+    private final ScriptedController fallback = new ScriptedController();
+    // Bumped on reset so a search started before it cannot publish into the new flight
+    private volatile int generation;
+
+    public AutopilotController(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public int nextInput(Simulation simulation) {
+        Player player = simulation.getPlayer();
+        if (!player.hasGameStarted()) {
+            return fallback.nextInput(simulation);
+        }
+        float now = simulation.getElapsedTime();
+        RoutePlan current = plan.get();
+        if (current == null || !current.covers(now) || needsReplan(current, player, now)) {
+            requestPlan(simulation);
+        }
+        if (current == null || !current.covers(now)) {
+            return fallback.nextInput(simulation);
+        }
+        Vector2 destination = simulation.getDestination();
+        if (!current.reachesDestination() && player.getX() - destination.x < APPROACH_DISTANCE) {
+            return approach(player, destination);
+        }
+        int segment = current.segmentAt(now);
+        // Either key resets the horizontal velocity to the chosen speed, so one is always held
+        int input = player.getSpeed() < current.getSpeed(segment) ? PlayerInput.ACCELERATE : PlayerInput.DECELERATE;
+        float distanceX = Math.max(0, player.getX() - destination.x);
+        if (Math.abs(destination.y - player.getY()) > distanceX * MAX_APPROACH_SLOPE) {
+            return input | towardsAltitude(player, destination);
+        }
+        return input | current.getVerticalInput(segment);
+    }
+
+    /**
+     * Drops the current plan, for a restart or a new level.
+     */
+    public void reset() {
+        generation++;
+        plan.set(null);
+    }
+
+    public RoutePlan getPlan() {
+        return plan.get();
+    }
+
+    private static int approach(Player player, Vector2 destination) {
+        int input = player.getSpeed() < APPROACH_SPEED ? PlayerInput.ACCELERATE : PlayerInput.DECELERATE;
+        return input | towardsAltitude(player, destination);
+    }
+
+    private static int towardsAltitude(Player player, Vector2 destination) {
+        float distanceY = destination.y - player.getY();
+        if (distanceY > APPROACH_DEAD_BAND) {
+            return PlayerInput.UP;
+        } else if (distanceY < -APPROACH_DEAD_BAND) {
+            return PlayerInput.DOWN;
+        }
+        return PlayerInput.NONE;
+    }
+
+    private boolean needsReplan(RoutePlan current, Player player, float now) {
+        return now - current.getStartTime() >= REPLAN_INTERVAL
+                || Math.abs(player.getX() - current.getExpectedX(now)) > REPLAN_DISTANCE
+                || Math.abs(player.getY() - current.getExpectedY(now)) > REPLAN_DISTANCE;
+    }
+
+    private void requestPlan(Simulation simulation) {
+        if (!planning.compareAndSet(false, true)) {
+            return;
+        }
+        RoutePlanner.Start start = new RoutePlanner.Start(simulation);
+        int requested = generation;
+        executor.execute(() -> {
+            try {
+                RoutePlan next = planner.plan(start);
+                if (next != null && requested == generation) {
+                    plan.set(next);
+                }
+            } finally {
+                planning.set(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Plays many seeded levels headless across all cores and prints per-level balance statistics.
+ *
+ * Usage: BatchRunner [firstLevel] [lastLevel] [runsPerLevel] [scripted|random|autopilot] [seed] [drift|static]
+ *
+ * Each level is flown on its standard map, generated once and shared by every run, while the seed
+ * varies the weather and the controller from run to run. Clouds drift as they do in the game unless
+ * "static" is given, which holds them at their anchors for faster runs; the clouds column of the
+ * output says which was used.
+ */
+public class BatchRunner {
+    private static final int MAX_STEPS = (int) ((Simulation.MAX_GAME_TIME + 5) * SimulationClock.DEFAULT_TICK_RATE);
+
+    public static void main(String[] args) {
+        int firstLevel = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int lastLevel = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        String controller = args.length > 3 ? args[3] : "scripted";
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+        boolean drift = parseClouds(args.length > 5 ? args[5] : "drift");
+
+        System.out.println("level,runs,winRate,timeoutRate,outOfBoundsRate,noFlyZoneRate,timeP10,timeP50,timeP90,timeMean,runsPerSecond,clouds");
+        for (int level = firstLevel; level <= lastLevel; level++) {
+            long start = System.nanoTime();
+            LevelReport report = runLevel(level, runs, controller, seed, drift);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(report.toCsv(runs / seconds) + (drift ? ",drift" : ",static"));
+        }
+    }
+
+    private static boolean parseClouds(String clouds) {
+        if ("drift".equals(clouds)) {
+            return true;
+        }
+        if ("static".equals(clouds)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unknown cloud mode: " + clouds + "; expected drift or static");
+    }
+
+    public static LevelReport runLevel(int level, int runs, String controller, long seed, boolean drift) {
+        Simulation.Outcome[] outcomes = new Simulation.Outcome[runs];
+        float[] times = new float[runs];
+        LevelLayout layout = LevelLayout.generate(level, LevelLayout.standardSeed(level));
+        int windColumns = WindField.columnsFromSystemProperties();
+        IntStream.range(0, runs).parallel().forEach(run -> {
+            long runSeed = seed * 31 + level * 1000003L + run;
+            Simulation simulation = new Simulation(layout, runSeed, windColumns, Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+            simulation.getEnvironment().getClouds().setDriftEnabled(drift);
+            outcomes[run] = play(simulation, createController(controller, runSeed));
+            times[run] = simulation.getElapsedTime();
+        });
+        return new LevelReport(level, outcomes, times);
+    }
+
+    public static Simulation.Outcome play(Simulation simulation, SimulationController controller) {
+        float step = 1f / SimulationClock.DEFAULT_TICK_RATE;
+        for (int i = 0; i < MAX_STEPS; i++) {
+            Simulation.Outcome outcome = simulation.step(step, controller.nextInput(simulation));
+            if (outcome != Simulation.Outcome.RUNNING) {
+                return outcome;
+            }
+        }
+        return Simulation.Outcome.TIMED_OUT;
+    }
+
+    private static SimulationController createController(String name, long seed) {
+        if ("random".equals(name)) {
+            return new RandomController(seed);
+        }
+        if ("scripted".equals(name)) {
+            return new ScriptedController();
+        }
+        if ("autopilot".equals(name)) {
+            // Plans inline so every run is reproducible
+            return new AutopilotController(Runnable::run);
+        }
+        throw new IllegalArgumentException("Unknown controller: " + name);
+    }
+
+    public static class LevelReport {
+        private final int level;
+        private final int runs;
+        private final int wins;
+        private final int timeouts;
+        private final int outOfBounds;
+        private final int noFlyZone;
+        private final float[] winTimes;
+
+        LevelReport(int level, Simulation.Outcome[] outcomes, float[] times) {
+            this.level = level;
+            this.runs = outcomes.length;
+            int wins = 0;
+            int timeouts = 0;
+            int outOfBounds = 0;
+            int noFlyZone = 0;
+            float[] winTimes = new float[outcomes.length];
+            for (int i = 0; i < outcomes.length; i++) {
+                switch (outcomes[i]) {
+                    case ARRIVED:
+                        winTimes[wins++] = times[i];
+                        break;
+                    case OUT_OF_BOUNDS:
+                        outOfBounds++;
+                        break;
+                    case NO_FLY_ZONE:
+                        noFlyZone++;
+                        break;
+                    default:
+                        timeouts++;
+                        break;
+                }
+            }
+            this.wins = wins;
+            this.timeouts = timeouts;
+            this.outOfBounds = outOfBounds;
+            this.noFlyZone = noFlyZone;
+            this.winTimes = Arrays.copyOf(winTimes, wins);
+            Arrays.sort(this.winTimes);
+        }
+
+        public float getWinRate() {
+            return runs == 0 ? 0 : (float) wins / runs;
+        }
+
+        public float getTimeoutRate() {
+            return runs == 0 ? 0 : (float) timeouts / runs;
+        }
+
+        public float getOutOfBoundsRate() {
+            return runs == 0 ? 0 : (float) outOfBounds / runs;
+        }
+
+        public float getNoFlyZoneRate() {
+            return runs == 0 ? 0 : (float) noFlyZone / runs;
+        }
+
+        public float getWinTimePercentile(float percentile) {
+            if (winTimes.length == 0) {
+                return Float.NaN;
+            }
+            int index = Math.min(winTimes.length - 1, (int) (percentile / 100f * winTimes.length));
+            return winTimes[index];
+        }
+
+        public float getMeanWinTime() {
+            if (winTimes.length == 0) {
+                return Float.NaN;
+            }
+            double sum = 0;
+            for (float time : winTimes) {
+                sum += time;
+            }
+            return (float) (sum / winTimes.length);
+        }
+
+        String toCsv(double runsPerSecond) {
+            return String.format(Locale.ROOT, "%d,%d,%.4f,%.4f,%.4f,%.4f,%.2f,%.2f,%.2f,%.2f,%.0f",
+                    level, runs, getWinRate(), getTimeoutRate(), getOutOfBoundsRate(), getNoFlyZoneRate(),
+                    getWinTimePercentile(10), getWinTimePercentile(50), getWinTimePercentile(90),
+                    getMeanWinTime(), runsPerSecond);
+        }
+    }
+}
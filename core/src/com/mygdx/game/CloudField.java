@@ -0,0 +1,496 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clouds stored as parallel primitive arrays. The wind moves every parallax layer by one shared
+ * displacement scaled by the cloud's depth, so only the small per-cloud drift needs a pass over
+ * the arrays. Wrapped positions are derived when they are read. A {@link CloudGrid} over each
+ * layer's own coordinates answers overlap and nearest-cloud queries without scanning every cloud.
+ */
+public class CloudField {
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 20000;
+
+    private static final int LAYER_COUNT = 3;
+    private static final float NEAREST_DEPTH = 1f;
+    private static final float FARTHEST_DEPTH = 0.6f;
+    private static final float MAX_DRIFT_SPEED = 4f;
+    private static final float DRIFT_JITTER = 6f;
+    private static final float MIN_SCALE = 0.9f;
+    private static final float MAX_SCALE = 1.1f;
+    private static final int MIN_CHUNK = 4096;
+
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] depth;
+    private final float[] scale;
+    private final byte[] layer;
+    // Clouds are drawn while their rank is below the visible share, so thinning drops a fixed subset
+    private final float[] visibleRank;
+    // The local wind at each cloud this step, sampled for a whole range at once
+    private final float[] windX;
+    private final float[] windY;
+    private final float[] layerDepth = new float[LAYER_COUNT];
+    private final float[] marginX = new float[LAYER_COUNT];
+    private final float[] marginY = new float[LAYER_COUNT];
+    private final float[] periodX = new float[LAYER_COUNT];
+    private final float[] periodY = new float[LAYER_COUNT];
+    private final CloudGrid grid;
+    private final int[] moved;
+    private final AtomicInteger movedCount = new AtomicInteger();
+    private final int[] columnRanges = new int[4];
+    private final int[] rowRanges = new int[4];
+    private final int count;
+    private final long seed;
+    private final float cloudWidth;
+    private final float cloudHeight;
+    private final float fieldWidth;
+    private final float fieldHeight;
+    private final int[] layerStart = new int[LAYER_COUNT + 1];
+    private double offsetX;
+    private double offsetY;
+    private double previousOffsetX;
+    private double previousOffsetY;
+    private int tick;
+    private double driftDistance;
+    private boolean driftEnabled = true;
+    private WindField windField;
+    private float windScale;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private float visibleShare = 1;
+
+    public CloudField(int count, long seed, float cloudWidth, float cloudHeight, float fieldWidth, float fieldHeight) {
+        this(count, null, null, seed, cloudWidth, cloudHeight, fieldWidth, fieldHeight);
+    }
+
+    /**
+     * Places one cloud at each anchor, given as a fraction of the field in [0, 1), instead of uniformly.
+     */
+    public CloudField(float[] anchorsX, float[] anchorsY, long seed, float cloudWidth, float cloudHeight, float fieldWidth, float fieldHeight) {
+        this(anchorsX.length, anchorsX, anchorsY, seed, cloudWidth, cloudHeight, fieldWidth, fieldHeight);
+    }
+
+    private CloudField(int count, float[] anchorsX, float[] anchorsY, long seed, float cloudWidth, float cloudHeight,
+                       float fieldWidth, float fieldHeight) {
+        this.count = count;
+        this.seed = seed;
+        this.cloudWidth = cloudWidth;
+        this.cloudHeight = cloudHeight;
+        this.fieldWidth = fieldWidth;
+        this.fieldHeight = fieldHeight;
+        this.x = new float[count];
+        this.y = new float[count];
+        this.vx = new float[count];
+        this.vy = new float[count];
+        this.depth = new float[count];
+        this.scale = new float[count];
+        this.layer = new byte[count];
+        this.moved = new int[count];
+        this.visibleRank = new float[count];
+        this.windX = new float[count];
+        this.windY = new float[count];
+
+        for (int l = 0; l < LAYER_COUNT; l++) {
+            layerDepth[l] = FARTHEST_DEPTH + (NEAREST_DEPTH - FARTHEST_DEPTH) * l / (LAYER_COUNT - 1);
+            // Whole units, so a cached layer maps one texel to one unit without a seam
+            marginX[l] = (float) Math.ceil(cloudWidth * layerDepth[l] * MAX_SCALE);
+            marginY[l] = (float) Math.ceil(cloudHeight * layerDepth[l] * MAX_SCALE);
+            // One period per layer keeps the layer rigid, so the grid only has to follow drift
+            periodX[l] = fieldWidth + marginX[l];
+            periodY[l] = fieldHeight + marginY[l];
+        }
+
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            // Indices are grouped by layer from far to near, so drawing in order paints back to front
+            int l = (int) ((long) i * LAYER_COUNT / Math.max(1, count));
+            // Drawn either way so anchors do not change the rest of the sequence
+            int uniformX = random.nextInt(Math.max(1, (int) fieldWidth));
+            int uniformY = random.nextInt(Math.max(1, (int) fieldHeight));
+            x[i] = anchorsX != null ? anchorsX[i] * fieldWidth : uniformX;
+            y[i] = anchorsY != null ? anchorsY[i] * fieldHeight : uniformY;
+            vx[i] = (random.nextFloat() - 0.5f) * MAX_DRIFT_SPEED;
+            vy[i] = (random.nextFloat() - 0.5f) * MAX_DRIFT_SPEED;
+            depth[i] = layerDepth[l];
+            scale[i] = layerDepth[l] * (MIN_SCALE + random.nextFloat() * (MAX_SCALE - MIN_SCALE));
+            layer[i] = (byte) l;
+            layerStart[l + 1] = i + 1;
+            // Hashed rather than drawn, so the simulation's sequence stays the same
+            visibleRank[i] = (noise(seed, i, -1) + 1) / 2;
+        }
+        for (int l = 1; l <= LAYER_COUNT; l++) {
+            layerStart[l] = Math.max(layerStart[l], layerStart[l - 1]);
+        }
+
+        this.grid = new CloudGrid(count, cloudWidth, cloudHeight, periodX, periodY);
+        for (int i = 0; i < count; i++) {
+            grid.insert(i, layer[i], x[i], y[i]);
+        }
+    }
+
+    public void advance(float dx, float dy, float delta) {
+        previousOffsetX = offsetX;
+        previousOffsetY = offsetY;
+        offsetX += dx;
+        offsetY += dy;
+        tick++;
+        if (!driftEnabled || count == 0) {
+            return;
+        }
+        // Bounds how far any cloud can have moved along either axis, wind field included
+        float maxSpeed = MAX_DRIFT_SPEED;
+        if (windField != null) {
+            maxSpeed += windField.getMaxSpeed() * windScale * NEAREST_DEPTH;
+        }
+        driftDistance += maxSpeed * delta;
+        if (count > parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new DriftTask(0, count, delta, tick));
+        } else {
+            drift(0, count, delta, tick);
+        }
+        relinkMoved();
+    }
+
+    private void drift(int from, int to, float delta, int tick) {
+        if (windField != null) {
+            for (int i = from; i < to; i++) {
+                windX[i] = positionX(i, offsetX);
+                windY[i] = positionY(i, offsetY);
+            }
+            windField.sample(windX, windY, from, to);
+        }
+        float jitter = DRIFT_JITTER * delta;
+        for (int i = from; i < to; i++) {
+            float nx = clamp(vx[i] + noise(seed, 2 * i, tick) * jitter, MAX_DRIFT_SPEED);
+            float ny = clamp(vy[i] + noise(seed, 2 * i + 1, tick) * jitter, MAX_DRIFT_SPEED);
+            vx[i] = nx;
+            vy[i] = ny;
+            if (windField != null) {
+                // The shared displacement carries the level's wind; local departures move each cloud on its own
+                nx += windX[i] * windScale * depth[i];
+                ny += windY[i] * windScale * depth[i];
+            }
+            int l = layer[i];
+            x[i] = fold(x[i] + nx * delta, periodX[l]);
+            y[i] = fold(y[i] + ny * delta, periodY[l]);
+            if (grid.cellFor(l, x[i], y[i]) != grid.getCell(i)) {
+                moved[movedCount.getAndIncrement()] = i;
+            }
+        }
+    }
+
+    // Workers record moved clouds in any order; relinking in index order keeps cell lists deterministic
+    private void relinkMoved() {
+        int movedClouds = movedCount.getAndSet(0);
+        Arrays.sort(moved, 0, movedClouds);
+        for (int k = 0; k < movedClouds; k++) {
+            int i = moved[k];
+            grid.move(i, layer[i], x[i], y[i]);
+        }
+    }
+
+    public float getX(int index) {
+        return positionX(index, offsetX);
+    }
+
+    public float getY(int index) {
+        return positionY(index, offsetY);
+    }
+
+    private float positionX(int index, double offset) {
+        int l = layer[index];
+        return wrap(x[index] + depth[index] * offset + marginX[l], periodX[l]) - marginX[l];
+    }
+
+    private float positionY(int index, double offset) {
+        int l = layer[index];
+        return wrap(y[index] + depth[index] * offset + marginY[l], periodY[l]) - marginY[l];
+    }
+
+    /**
+     * Replaces the contents of out with every cloud whose current bounds overlap the rectangle.
+     */
+    public int queryOverlaps(float left, float bottom, float width, float height, IntArray out) {
+        out.clear();
+        for (int l = 0; l < LAYER_COUNT; l++) {
+            // A cloud overlaps when its corner lies up to one cloud size below or left of the rectangle
+            float u = wrap(left - marginX[l] - layerDepth[l] * offsetX, periodX[l]);
+            float v = wrap(bottom - marginY[l] - layerDepth[l] * offsetY, periodY[l]);
+            int columnCount = CloudGrid.cellRanges(u, width + marginX[l], periodX[l], grid.getCellWidth(), grid.getColumns(l), columnRanges);
+            int rowCount = CloudGrid.cellRanges(v, height + marginY[l], periodY[l], grid.getCellHeight(), grid.getRows(l), rowRanges);
+            for (int c = 0; c < columnCount; c++) {
+                for (int r = 0; r < rowCount; r++) {
+                    collectOverlaps(l, c, r, left, bottom, width, height, out);
+                }
+            }
+        }
+        return out.size;
+    }
+
+    private void collectOverlaps(int l, int c, int r, float left, float bottom, float width, float height, IntArray out) {
+        for (int column = columnRanges[2 * c]; column <= columnRanges[2 * c + 1]; column++) {
+            for (int row = rowRanges[2 * r]; row <= rowRanges[2 * r + 1]; row++) {
+                for (int i = grid.first(grid.cellIndex(l, column, row)); i >= 0; i = grid.next(i)) {
+                    float cloudX = getX(i);
+                    float cloudY = getY(i);
+                    if (cloudX < left + width && cloudX + getWidth(i) > left
+                            && cloudY < bottom + height && cloudY + getHeight(i) > bottom) {
+                        out.add(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cloud whose bounds are closest to the point, or -1 when there are none. Each
+     * layer's grid is searched in rings of cells around the point until no closer cloud can exist.
+     */
+    public int nearest(float px, float py) {
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        float cellWidth = grid.getCellWidth();
+        float cellHeight = grid.getCellHeight();
+        for (int l = 0; l < LAYER_COUNT && bestDistance > 0; l++) {
+            float u = wrap(px - layerDepth[l] * offsetX, periodX[l]);
+            float v = wrap(py - layerDepth[l] * offsetY, periodY[l]);
+            int column = grid.column(l, u);
+            int row = grid.row(l, v);
+            int maxRing = Math.max(grid.getColumns(l), grid.getRows(l)) / 2 + 1;
+            for (int ring = 0; ring <= maxRing && bestDistance > 0; ring++) {
+                // Clouds hang over the right and top of their cell by up to one margin
+                float ringDistance = Math.min((ring - 1) * cellWidth - marginX[l], (ring - 1) * cellHeight - marginY[l]);
+                if (best >= 0 && ringDistance >= bestDistance) {
+                    break;
+                }
+                for (int dy = -ring; dy <= ring; dy++) {
+                    // Full rows at the top and bottom of the ring, only its two ends in between
+                    int step = dy == -ring || dy == ring ? 1 : 2 * ring;
+                    for (int dx = -ring; dx <= ring; dx += step) {
+                        float gapX = cellGap(u, column + dx, grid.getColumns(l), cellWidth, marginX[l], periodX[l]);
+                        float gapY = cellGap(v, row + dy, grid.getRows(l), cellHeight, marginY[l], periodY[l]);
+                        if (gapX * gapX + gapY * gapY >= bestDistance * bestDistance) {
+                            continue;
+                        }
+                        for (int i = grid.first(grid.cellIndex(l, column + dx, row + dy)); i >= 0; i = grid.next(i)) {
+                            float distance = distanceTo(i, px, py);
+                            if (distance < bestDistance) {
+                                bestDistance = distance;
+                                best = i;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Distance along one axis from the point to any cloud stored in the given, possibly wrapped, cell
+    private static float cellGap(float point, int cell, int cells, float cellSize, float margin, float period) {
+        int wrapped = Math.floorMod(cell, cells);
+        float start = wrapped * cellSize + Math.floorDiv(cell, cells) * period;
+        return Math.max(0, Math.max(start - point, point - start - cellSize - margin));
+    }
+
+    private float distanceTo(int index, float px, float py) {
+        float left = getX(index);
+        float bottom = getY(index);
+        float dx = Math.max(0, Math.max(left - px, px - left - getWidth(index)));
+        float dy = Math.max(0, Math.max(bottom - py, py - bottom - getHeight(index)));
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public float getWidth(int index) {
+        return cloudWidth * scale[index];
+    }
+
+    public float getHeight(int index) {
+        return cloudHeight * scale[index];
+    }
+
+    public float getDepth(int index) {
+        return depth[index];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Upper bound on how far any cloud has drifted on either axis since the field was created.
+     */
+    public double getDriftDistance() {
+        return driftDistance;
+    }
+
+    /**
+     * How far the wind has carried the nearest layer since the field was created; farther layers
+     * move by this scaled with their depth.
+     */
+    public double getOffsetX() {
+        return offsetX;
+    }
+
+    public double getOffsetY() {
+        return offsetY;
+    }
+
+    public float getFieldWidth() {
+        return fieldWidth;
+    }
+
+    public float getFieldHeight() {
+        return fieldHeight;
+    }
+
+    public int getLayerCount() {
+        return LAYER_COUNT;
+    }
+
+    public float getLayerPeriodX(int layer) {
+        return periodX[layer];
+    }
+
+    public float getLayerPeriodY(int layer) {
+        return periodY[layer];
+    }
+
+    /**
+     * Where local coordinate zero of the layer lands on screen at the interpolated displacement,
+     * in [0, period). The layer repeats every period on both axes.
+     */
+    public float getLayerShiftX(int layer, float alpha) {
+        return wrap(layerDepth[layer] * (previousOffsetX + (offsetX - previousOffsetX) * alpha), periodX[layer]);
+    }
+
+    public float getLayerShiftY(int layer, float alpha) {
+        return wrap(layerDepth[layer] * (previousOffsetY + (offsetY - previousOffsetY) * alpha), periodY[layer]);
+    }
+
+    /**
+     * Draws one layer in its own coordinates, one period wide and high, with clouds that cross the
+     * edge repeated on the other side so the result tiles seamlessly.
+     */
+    public void drawLayer(Batch batch, TextureRegion region, int layer) {
+        float periodWidth = periodX[layer];
+        float periodHeight = periodY[layer];
+        for (int i = layerStart[layer]; i < layerStart[layer + 1]; i++) {
+            if (visibleRank[i] >= visibleShare) {
+                continue;
+            }
+            float width = getWidth(i);
+            float height = getHeight(i);
+            boolean wrapsX = x[i] + width > periodWidth;
+            boolean wrapsY = y[i] + height > periodHeight;
+            batch.draw(region, x[i], y[i], width, height);
+            if (wrapsX) {
+                batch.draw(region, x[i] - periodWidth, y[i], width, height);
+            }
+            if (wrapsY) {
+                batch.draw(region, x[i], y[i] - periodHeight, width, height);
+            }
+            if (wrapsX && wrapsY) {
+                batch.draw(region, x[i] - periodWidth, y[i] - periodHeight, width, height);
+            }
+        }
+    }
+
+    /**
+     * Lets each cloud drift with the local wind as well, scaled into cloud units per second.
+     */
+    public void setWindField(WindField windField, float windScale) {
+        this.windField = windField;
+        this.windScale = windScale;
+    }
+
+    public void setDriftEnabled(boolean driftEnabled) {
+        this.driftEnabled = driftEnabled;
+    }
+
+    /**
+     * Draws only this share of the clouds, from 0 to 1. Queries and the simulation still see all of them.
+     */
+    public void setVisibleShare(float visibleShare) {
+        this.visibleShare = visibleShare;
+    }
+
+    public float getVisibleShare() {
+        return visibleShare;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    // Only the shared wind displacement is interpolated; drift moves a fraction of a pixel per step
+    public void draw(Batch batch, TextureRegion region, float alpha) {
+        double renderOffsetX = previousOffsetX + (offsetX - previousOffsetX) * alpha;
+        double renderOffsetY = previousOffsetY + (offsetY - previousOffsetY) * alpha;
+        for (int i = 0; i < count; i++) {
+            if (visibleRank[i] >= visibleShare) {
+                continue;
+            }
+            batch.draw(region, positionX(i, renderOffsetX), positionY(i, renderOffsetY), getWidth(i), getHeight(i));
+        }
+    }
+
+    private static float wrap(double value, float period) {
+        return (float) (value - period * Math.floor(value / period));
+    }
+
+    // Drift moves a cloud far less than one period per step, so a single fold keeps it in range
+    private static float fold(float value, float period) {
+        if (value >= period) return value - period;
+        if (value < 0) return value + period;
+        return value;
+    }
+
+    private static float clamp(float value, float limit) {
+        return value > limit ? limit : value < -limit ? -limit : value;
+    }
+
+    // Stateless hash in [-1, 1) so every worker can sample its own slice without sharing a Random
+    private static float noise(long seed, int index, int tick) {
+        long h = seed + index * 0x9E3779B97F4A7C15L + tick * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (h >>> 40) / (float) (1 << 23) - 1f;
+    }
+
+    private final class DriftTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final float delta;
+        private final int tick;
+
+        DriftTask(int from, int to, float delta, int tick) {
+            this.from = from;
+            this.to = to;
+            this.delta = delta;
+            this.tick = tick;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_CHUNK) {
+                drift(from, to, delta, tick);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DriftTask(from, mid, delta, tick), new DriftTask(mid, to, delta, tick));
+        }
+    }
+}
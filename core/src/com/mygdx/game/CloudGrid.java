@@ -0,0 +1,159 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid of cloud indices, one toroidal grid per parallax layer. Coordinates are local to a
+ * layer, so the shared wind displacement never moves a cloud between cells; only drift does, and
+ * those clouds are relinked one at a time. Each cell is an intrusive doubly linked list.
+ */
+public class CloudGrid {
+    private static final int NONE = -1;
+
+    private final float cellWidth;
+    private final float cellHeight;
+    private final int[] columns;
+    private final int[] rows;
+    private final int[] firstCell;
+    private final int[] head;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] cell;
+
+    public CloudGrid(int capacity, float cellWidth, float cellHeight, float[] periodX, float[] periodY) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        int layers = periodX.length;
+        this.columns = new int[layers];
+        this.rows = new int[layers];
+        this.firstCell = new int[layers];
+        int cells = 0;
+        for (int layer = 0; layer < layers; layer++) {
+            columns[layer] = Math.max(1, (int) Math.ceil(periodX[layer] / cellWidth));
+            rows[layer] = Math.max(1, (int) Math.ceil(periodY[layer] / cellHeight));
+            firstCell[layer] = cells;
+            cells += columns[layer] * rows[layer];
+        }
+        this.head = new int[cells];
+        Arrays.fill(head, NONE);
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.cell = new int[capacity];
+    }
+
+    public int column(int layer, float u) {
+        return Math.max(0, Math.min(columns[layer] - 1, (int) (u / cellWidth)));
+    }
+
+    public int row(int layer, float v) {
+        return Math.max(0, Math.min(rows[layer] - 1, (int) (v / cellHeight)));
+    }
+
+    /**
+     * Index of the cell at the given column and row; both wrap around the layer.
+     */
+    public int cellIndex(int layer, int column, int row) {
+        int c = Math.floorMod(column, columns[layer]);
+        int r = Math.floorMod(row, rows[layer]);
+        return firstCell[layer] + r * columns[layer] + c;
+    }
+
+    public int cellFor(int layer, float u, float v) {
+        return firstCell[layer] + row(layer, v) * columns[layer] + column(layer, u);
+    }
+
+    public void insert(int index, int layer, float u, float v) {
+        link(index, cellFor(layer, u, v));
+    }
+
+    /**
+     * Moves the cloud to the cell holding the given position; returns false when it stays put.
+     */
+    public boolean move(int index, int layer, float u, float v) {
+        int target = cellFor(layer, u, v);
+        if (target == cell[index]) {
+            return false;
+        }
+        unlink(index);
+        link(index, target);
+        return true;
+    }
+
+    public int getCell(int index) {
+        return cell[index];
+    }
+
+    public int first(int cellIndex) {
+        return head[cellIndex];
+    }
+
+    // Negative once the end of the cell is reached
+    public int next(int index) {
+        return next[index];
+    }
+
+    public int getColumns(int layer) {
+        return columns[layer];
+    }
+
+    public int getRows(int layer) {
+        return rows[layer];
+    }
+
+    public float getCellWidth() {
+        return cellWidth;
+    }
+
+    public float getCellHeight() {
+        return cellHeight;
+    }
+
+    /**
+     * Writes the inclusive cell ranges covering [start, start + length] on an axis that wraps at
+     * period into out as from/to pairs, and returns how many ranges there are (one or two).
+     */
+    public static int cellRanges(float start, float length, float period, float cellSize, int cells, int[] out) {
+        int from = Math.max(0, Math.min(cells - 1, (int) (start / cellSize)));
+        float end = start + length;
+        if (length < period && end < period) {
+            out[0] = from;
+            out[1] = Math.max(from, Math.min(cells - 1, (int) (end / cellSize)));
+            return 1;
+        }
+        int wrappedTo = Math.min(cells - 1, (int) ((end - period) / cellSize));
+        if (length >= period || wrappedTo >= from) {
+            out[0] = 0;
+            out[1] = cells - 1;
+            return 1;
+        }
+        out[0] = from;
+        out[1] = cells - 1;
+        out[2] = 0;
+        out[3] = wrappedTo;
+        return 2;
+    }
+
+    private void link(int index, int target) {
+        int first = head[target];
+        next[index] = first;
+        previous[index] = NONE;
+        if (first != NONE) {
+            previous[first] = index;
+        }
+        head[target] = index;
+        cell[index] = target;
+    }
+
+    private void unlink(int index) {
+        int before = previous[index];
+        int after = next[index];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            head[cell[index]] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+}
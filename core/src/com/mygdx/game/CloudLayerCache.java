@@ -0,0 +1,185 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Renders each parallax layer of a {@link CloudField} into an off-screen tile and draws it as up to
+ * four scrolled quads per layer, so drawing the clouds costs the same however many there are.
+ * Keeping the tiles current does not: drift makes them go stale, and a layer is re-rendered, every
+ * cloud of it, once a cloud could have moved a texel. At most one layer is re-rendered per frame,
+ * so a layer may lag a texel behind for each layer queued before it. The clouds are drawn one by
+ * one instead when they move a texel every frame. At a lower detail the tiles have fewer texels
+ * than units and are re-rendered less often.
+ */
+public class CloudLayerCache implements Disposable {
+    private static final double REFRESH_DISTANCE = 1;
+
+    private final Matrix4 projection = new Matrix4();
+    private FrameBuffer[] layers = new FrameBuffer[0];
+    private CloudField field;
+    private boolean stale;
+    private boolean cached;
+    private double previousDrift;
+    private double[] layerDrift = new double[0];
+    private float[] layerShare = new float[0];
+    private int nextLayer;
+    private float allocatedWidth;
+    private float allocatedHeight;
+    private float detail = 1;
+    private float allocatedDetail;
+
+    /**
+     * Switches to a new field, typically when a level starts; its tiles are rendered on the next
+     * {@link #prepare}.
+     */
+    public void setField(CloudField field) {
+        this.field = field;
+        this.stale = true;
+    }
+
+    /**
+     * Texels per unit of the tiles, at most 1; they are re-rendered at the new size on the next
+     * {@link #prepare}.
+     */
+    public void setDetail(float detail) {
+        if (detail != this.detail) {
+            this.detail = detail;
+            stale = true;
+        }
+    }
+
+    /**
+     * Re-renders the next stale tile in turn, or all of them when none is usable yet. Must be
+     * called outside batch.begin()/end(); the batch's projection is left changed and blending is
+     * reset to the default.
+     */
+    public void prepare(Batch batch, TextureRegion region) {
+        double drift = field.getDriftDistance();
+        // A cloud has moved a texel once it has moved this far
+        double refresh = REFRESH_DISTANCE / detail;
+        cached = drift - previousDrift < refresh;
+        previousDrift = drift;
+        if (!cached) {
+            // The tiles fall far behind while the clouds are drawn directly
+            stale = true;
+            return;
+        }
+        if (allocate() || stale) {
+            for (int l = 0; l < layers.length; l++) {
+                render(batch, region, l, drift);
+            }
+            stale = false;
+            return;
+        }
+        // Taking turns, so one layer that is always due cannot hold the others back
+        for (int i = 0; i < layers.length; i++) {
+            int l = (nextLayer + i) % layers.length;
+            if (drift - layerDrift[l] >= refresh || layerShare[l] != field.getVisibleShare()) {
+                render(batch, region, l, drift);
+                nextLayer = (l + 1) % layers.length;
+                return;
+            }
+        }
+    }
+
+    private void render(Batch batch, TextureRegion region, int layer, double drift) {
+        FrameBuffer target = layers[layer];
+        batch.setBlendFunctionSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        target.begin();
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        batch.setProjectionMatrix(projection.setToOrtho2D(0, 0,
+                (float) Math.ceil(field.getLayerPeriodX(layer)), (float) Math.ceil(field.getLayerPeriodY(layer))));
+        batch.begin();
+        field.drawLayer(batch, region, layer);
+        batch.end();
+        target.end();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        layerDrift[layer] = drift;
+        layerShare[layer] = field.getVisibleShare();
+    }
+
+    /**
+     * Draws the clouds between batch.begin() and end(), from the tiles when they are usable.
+     */
+    public void draw(Batch batch, TextureRegion region, float alpha) {
+        if (!cached) {
+            field.draw(batch, region, alpha);
+            return;
+        }
+        // The tiles hold colour multiplied by alpha already
+        batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        for (int l = 0; l < layers.length; l++) {
+            drawScrolled(batch, layers[l].getColorBufferTexture(), field, l, alpha);
+        }
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    /**
+     * Draws a layer tile at the field's current displacement, skipping the copies that fall
+     * outside the field. Frame buffer textures are upside down, hence the flip.
+     */
+    public static void drawScrolled(Batch batch, Texture tile, CloudField field, int layer, float alpha) {
+        float periodX = field.getLayerPeriodX(layer);
+        float periodY = field.getLayerPeriodY(layer);
+        float shiftX = field.getLayerShiftX(layer, alpha);
+        float shiftY = field.getLayerShiftY(layer, alpha);
+        int width = tile == null ? (int) periodX : tile.getWidth();
+        int height = tile == null ? (int) periodY : tile.getHeight();
+        for (int tx = -1; tx <= 0; tx++) {
+            float left = shiftX + tx * periodX;
+            if (left + periodX <= 0 || left >= field.getFieldWidth()) {
+                continue;
+            }
+            for (int ty = -1; ty <= 0; ty++) {
+                float bottom = shiftY + ty * periodY;
+                if (bottom + periodY <= 0 || bottom >= field.getFieldHeight()) {
+                    continue;
+                }
+                batch.draw(tile, left, bottom, periodX, periodY, 0, 0, width, height, false, true);
+            }
+        }
+    }
+
+    // True when the tiles were created afresh and hold nothing yet
+    private boolean allocate() {
+        if (layers.length == field.getLayerCount()
+                && allocatedWidth == field.getFieldWidth() && allocatedHeight == field.getFieldHeight()
+                && allocatedDetail == detail) {
+            return false;
+        }
+        disposeLayers();
+        layers = new FrameBuffer[field.getLayerCount()];
+        layerDrift = new double[layers.length];
+        layerShare = new float[layers.length];
+        for (int l = 0; l < layers.length; l++) {
+            int width = (int) Math.ceil(Math.ceil(field.getLayerPeriodX(l)) * detail);
+            int height = (int) Math.ceil(Math.ceil(field.getLayerPeriodY(l)) * detail);
+            layers[l] = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+        }
+        allocatedWidth = field.getFieldWidth();
+        allocatedHeight = field.getFieldHeight();
+        allocatedDetail = detail;
+        return true;
+    }
+
+    private void disposeLayers() {
+        for (FrameBuffer layer : layers) {
+            layer.dispose();
+        }
+        layers = new FrameBuffer[0];
+    }
+
+    @Override
+    public void dispose() {
+        disposeLayers();
+    }
+}
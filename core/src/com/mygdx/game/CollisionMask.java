@@ -0,0 +1,238 @@
+package com.mygdx.game;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * One bit per square cell of the world, packed into longs row by row, with a coarse level of 8 by 8
+ * cell tiles on top that records whether each tile is empty, full or mixed. A rectangle query is
+ * usually settled by the handful of tiles it touches and only reads bit words when one of them is
+ * mixed, so a hitbox test costs the same anywhere on the map and never allocates. Masks are filled
+ * in while a level is generated and only read afterwards, so they can be shared between threads.
+ */
+public final class CollisionMask {
+    static final int MAGIC = 0x5A4D534B; // "ZMSK"
+    static final int VERSION = 1;
+    private static final int TILE_SHIFT = 3;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final byte EMPTY = 0;
+    private static final byte MIXED = 1;
+    private static final byte FULL = 2;
+
+    private final int columns;
+    private final int rows;
+    private final float cellSize;
+    private final int wordsPerRow;
+    private final long[] bits;
+    private final int tileColumns;
+    private final byte[] tiles;
+
+    public CollisionMask(int columns, int rows, float cellSize) {
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.wordsPerRow = (columns + 63) >>> 6;
+        this.bits = new long[wordsPerRow * rows];
+        this.tileColumns = (columns + TILE_SIZE - 1) >>> TILE_SHIFT;
+        this.tiles = new byte[tileColumns * ((rows + TILE_SIZE - 1) >>> TILE_SHIFT)];
+    }
+
+    public boolean get(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return false;
+        }
+        return (bits[row * wordsPerRow + (column >>> 6)] & 1L << column) != 0;
+    }
+
+    public void set(int column, int row) {
+        if (column >= 0 && column < columns && row >= 0 && row < rows) {
+            bits[row * wordsPerRow + (column >>> 6)] |= 1L << column;
+            updateTiles(column, row, column, row);
+        }
+    }
+
+    /**
+     * Whether any cell under the rectangle, in world units with its lower left corner at x, y, is set.
+     * Nothing outside the mask is set.
+     */
+    public boolean overlaps(float x, float y, float width, float height) {
+        int firstColumn = Math.max(0, (int) Math.floor(x / cellSize));
+        int lastColumn = Math.min(columns - 1, (int) Math.ceil((x + width) / cellSize) - 1);
+        int firstRow = Math.max(0, (int) Math.floor(y / cellSize));
+        int lastRow = Math.min(rows - 1, (int) Math.ceil((y + height) / cellSize) - 1);
+        if (firstColumn > lastColumn || firstRow > lastRow) {
+            return false;
+        }
+
+        boolean mixed = false;
+        for (int tileRow = firstRow >>> TILE_SHIFT; tileRow <= lastRow >>> TILE_SHIFT; tileRow++) {
+            for (int tileColumn = firstColumn >>> TILE_SHIFT; tileColumn <= lastColumn >>> TILE_SHIFT; tileColumn++) {
+                byte tile = tiles[tileRow * tileColumns + tileColumn];
+                if (tile == FULL) {
+                    // Every cell of it is set, and the rectangle covers at least one
+                    return true;
+                }
+                mixed |= tile == MIXED;
+            }
+        }
+        return mixed && anySet(firstColumn, firstRow, lastColumn, lastRow);
+    }
+
+    /**
+     * Sets every cell the rectangle, in world units, touches.
+     */
+    public void fill(float x, float y, float width, float height) {
+        int firstColumn = Math.max(0, (int) Math.floor(x / cellSize));
+        int lastColumn = Math.min(columns - 1, (int) Math.ceil((x + width) / cellSize) - 1);
+        int firstRow = Math.max(0, (int) Math.floor(y / cellSize));
+        int lastRow = Math.min(rows - 1, (int) Math.ceil((y + height) / cellSize) - 1);
+        if (firstColumn > lastColumn || firstRow > lastRow) {
+            return;
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int word = firstColumn >>> 6; word <= lastColumn >>> 6; word++) {
+                bits[row * wordsPerRow + word] |= wordMask(word, firstColumn, lastColumn);
+            }
+        }
+        updateTiles(firstColumn, firstRow, lastColumn, lastRow);
+    }
+
+    /**
+     * Clears every cell that is not also set in the other mask, which must have the same grid.
+     */
+    public void retain(CollisionMask other) {
+        if (other.columns != columns || other.rows != rows || other.cellSize != cellSize) {
+            throw new IllegalArgumentException("Masks of " + columns + "x" + rows + " and " + other.columns + "x" + other.rows + " cells differ");
+        }
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] &= other.bits[i];
+        }
+        updateTiles(0, 0, columns - 1, rows - 1);
+    }
+
+    /**
+     * The first set column in the row at or after from, or the column count if there is none.
+     */
+    public int nextSet(int row, int from) {
+        return scan(row, from, false);
+    }
+
+    /**
+     * The first clear column in the row at or after from, or the column count if there is none.
+     */
+    public int nextClear(int row, int from) {
+        return scan(row, from, true);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(columns);
+        out.writeInt(rows);
+        out.writeFloat(cellSize);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+        out.flush();
+    }
+
+    public static CollisionMask read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a collision mask");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported collision mask version " + version);
+        }
+        int columns = in.readInt();
+        int rows = in.readInt();
+        float cellSize = in.readFloat();
+        if (columns <= 0 || rows <= 0 || !(cellSize > 0)) {
+            throw new IOException("Collision mask of " + columns + "x" + rows + " cells of " + cellSize);
+        }
+        CollisionMask mask = new CollisionMask(columns, rows, cellSize);
+        for (int i = 0; i < mask.bits.length; i++) {
+            mask.bits[i] = in.readLong();
+        }
+        mask.updateTiles(0, 0, columns - 1, rows - 1);
+        return mask;
+    }
+
+    private boolean anySet(int firstColumn, int firstRow, int lastColumn, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int word = firstColumn >>> 6; word <= lastColumn >>> 6; word++) {
+                if ((bits[row * wordsPerRow + word] & wordMask(word, firstColumn, lastColumn)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int scan(int row, int from, boolean clear) {
+        if (row < 0 || row >= rows || from >= columns) {
+            return columns;
+        }
+        from = Math.max(0, from);
+        for (int word = from >>> 6; word < wordsPerRow; word++) {
+            long value = bits[row * wordsPerRow + word];
+            if (clear) {
+                value = ~value;
+            }
+            value &= wordMask(word, from, columns - 1);
+            if (value != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(value);
+            }
+        }
+        return columns;
+    }
+
+    private void updateTiles(int firstColumn, int firstRow, int lastColumn, int lastRow) {
+        for (int tileRow = firstRow >>> TILE_SHIFT; tileRow <= lastRow >>> TILE_SHIFT; tileRow++) {
+            for (int tileColumn = firstColumn >>> TILE_SHIFT; tileColumn <= lastColumn >>> TILE_SHIFT; tileColumn++) {
+                int left = tileColumn << TILE_SHIFT;
+                int right = Math.min(columns, left + TILE_SIZE) - 1;
+                int bottom = tileRow << TILE_SHIFT;
+                int top = Math.min(rows, bottom + TILE_SIZE) - 1;
+                // A tile never straddles two words, since 64 is a multiple of the tile size
+                int word = left >>> 6;
+                long cells = wordMask(word, left, right);
+                boolean any = false;
+                boolean all = true;
+                for (int row = bottom; row <= top; row++) {
+                    long value = bits[row * wordsPerRow + word] & cells;
+                    any |= value != 0;
+                    all &= value == cells;
+                }
+                tiles[tileRow * tileColumns + tileColumn] = all ? FULL : any ? MIXED : EMPTY;
+            }
+        }
+    }
+
+    // The bits of one word that fall between two columns, inclusive
+    private static long wordMask(int word, int firstColumn, int lastColumn) {
+        int low = Math.max(firstColumn - (word << 6), 0);
+        int high = Math.min(lastColumn - (word << 6), 63);
+        if (low > high) {
+            return 0;
+        }
+        return (-1L >>> (63 - high)) & (-1L << low);
+    }
+}
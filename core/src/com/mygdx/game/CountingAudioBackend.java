@@ -0,0 +1,53 @@
+package com.mygdx.game;
+
+/**
+ * Silent backend that only counts voices, for headless runs and for checking the mixer's limits.
+ */
+public class CountingAudioBackend implements AudioBackend {
+    private final int[] active = new int[AudioManager.Cue.values().length];
+    private long nextId;
+    private int total;
+    private int peak;
+    private int started;
+
+    @Override
+    public long play(AudioManager.Cue cue, float volume, boolean loop) {
+        active[cue.ordinal()]++;
+        total++;
+        started++;
+        peak = Math.max(peak, total);
+        return nextId++;
+    }
+
+    @Override
+    public void setVolume(AudioManager.Cue cue, long id, float volume) {
+    }
+
+    @Override
+    public void stop(AudioManager.Cue cue, long id) {
+        active[cue.ordinal()]--;
+        total--;
+    }
+
+    @Override
+    public void finished(AudioManager.Cue cue, long id) {
+        active[cue.ordinal()]--;
+        total--;
+    }
+
+    public int getActiveVoices() {
+        return total;
+    }
+
+    public int getActiveVoices(AudioManager.Cue cue) {
+        return active[cue.ordinal()];
+    }
+
+    public int getPeakVoices() {
+        return peak;
+    }
+
+    public int getStartedVoices() {
+        return started;
+    }
+}
@@ -1,89 +1,130 @@
 package com.mygdx.game;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class EnvironmentalManager {
-    private static final float WIND_MAX_SPEED = 8f;
-    private static final float WIND_CHANGE_FREQUENCY = 0.005f;
-    private static final float MAX_WIND_CHANGE = 0.5f;
-    private static final float LERP_FACTOR = 0.002f;
-    private static final float GUST_PROBABILITY = 0.002f;
+    public interface WindListener {
+        void onWindShift();
+    }
+
+    // Per second; the original per-frame tuning assumed 60 frames per second
+    static final float LERP_RATE = 0.12f;
     private static final float CLOUD_SPEED_MULTIPLIER = 20f;
+    private static final float CLOUD_WIDTH = 100;
+    private static final float CLOUD_HEIGHT = 45;
+    // Hitbox used for cloud cover; the sprite sizes differ per zeppelin
+    static final float ZEPPELIN_WIDTH = 45;
+    static final float ZEPPELIN_HEIGHT = 20;
+    // Per second, how quickly the cover follows the clouds the zeppelin is in
+    private static final float COVER_RATE = 3f;
+    // Random wind added in full cover, in the same units as the wind itself
+    private static final float TURBULENCE = 2f;
+    // Per second, how quickly the zeppelin takes on the local wind where it flies
+    private static final float LOCAL_WIND_RATE = 2f;
 
     private final Vector2 wind = new Vector2();
-    private final Random random = new Random();
-    private final Vector2 targetWind = new Vector2();
-    private final Sound windSound;
-    private final float windVolume;
+    private final WindTimeline windTimeline;
+    private final WindField windField;
+    private final Vector2 localWind = new Vector2();
+    private final Vector2 sampledWind = new Vector2();
+    private WindListener windListener;
+
+    private final CloudField clouds;
+    private final IntArray overlapping = new IntArray();
+    private final Vector2 turbulentWind = new Vector2();
+    private final SplittableRandom turbulence;
+    private float cloudCover;
+
+    public EnvironmentalManager(long seed, int level, float fieldWidth, float fieldHeight) {
+        this(LevelLayout.generate(level, seed), fieldWidth, fieldHeight);
+    }
 
-    private final List<Cloud> clouds;
+    public EnvironmentalManager(LevelLayout layout, float fieldWidth, float fieldHeight) {
+        this(layout, WindField.columnsFromSystemProperties(), fieldWidth, fieldHeight);
+    }
 
-    public EnvironmentalManager(Sound windSound, float windVolume, Texture cloudTexture, int level) {
-        this.windSound = windSound;
-        this.windVolume = windVolume;
+    public EnvironmentalManager(LevelLayout layout, int windColumns, float fieldWidth, float fieldHeight) {
+        this(layout, layout.getSeed(), windColumns, fieldWidth, fieldHeight);
+    }
+
+    // Weather drawn from a seed of its own, so many runs can share one layout
+    EnvironmentalManager(LevelLayout layout, long seed, int windColumns, float fieldWidth, float fieldHeight) {
+        SplittableRandom seeds = new SplittableRandom(seed);
         this.wind.set(0, 0);
-        this.targetWind.set((random.nextFloat() - 0.5f) * 2 * MAX_WIND_CHANGE, (random.nextFloat() - 0.5f) * 2 * MAX_WIND_CHANGE);
-        this.targetWind.limit(WIND_MAX_SPEED);
-        this.clouds = new ArrayList<>();
-
-        int numClouds = 75 * level;
-
-        for (int i = 0; i < numClouds; i++) {
-            float startX = random.nextInt(Gdx.graphics.getWidth());
-            float startY = random.nextInt(Gdx.graphics.getHeight());
-            float cloudWidth = 100;
-            float cloudHeight = 45;
-            clouds.add(new Cloud(cloudTexture, startX, startY, cloudWidth, cloudHeight));
-        }
+        this.windTimeline = new WindTimeline(seeds.nextLong(), layout.getPrevailingWindX(), layout.getPrevailingWindY(),
+                layout.getWindVariability());
+
+        this.clouds = new CloudField(layout.getCloudAnchorsX(), layout.getCloudAnchorsY(), seeds.nextLong(),
+                CLOUD_WIDTH, CLOUD_HEIGHT, fieldWidth, fieldHeight);
+        this.turbulence = new SplittableRandom(seeds.nextLong());
+        this.windField = new WindField(layout, seeds.nextLong(), windColumns, fieldWidth, fieldHeight);
+        clouds.setWindField(windField, CLOUD_SPEED_MULTIPLIER);
     }
 
-    public void update(Player player, float delta) {
-        adjustWindConditions();
-        player.applyWindEffect(wind);
-        for (Cloud cloud : clouds) {
-            cloud.update(wind, delta * CLOUD_SPEED_MULTIPLIER);
-        }
+    public void setWindListener(WindListener windListener) {
+        this.windListener = windListener;
+    }
 
+    public void update(Player player, float delta) {
+        adjustWindConditions(delta);
+        updateCloudCover(player, delta);
+        // Drawn every step, even in clear air, so the sequence does not depend on the flight path
+        float gustX = (float) (turbulence.nextDouble() * 2 - 1) * TURBULENCE * cloudCover;
+        float gustY = (float) (turbulence.nextDouble() * 2 - 1) * TURBULENCE * cloudCover;
+        windField.sample(player.getX() + ZEPPELIN_WIDTH / 2, player.getY() + ZEPPELIN_HEIGHT / 2, sampledWind);
+        localWind.lerp(sampledWind, Math.min(1f, LOCAL_WIND_RATE * delta));
+        player.applyWindEffect(turbulentWind.set(wind).add(localWind).add(gustX, gustY), cloudCover, delta);
+        float cloudDelta = delta * CLOUD_SPEED_MULTIPLIER;
+        clouds.advance(wind.x * cloudDelta, wind.y * cloudDelta, delta);
     }
 
-    private void adjustWindConditions() {
-        if (random.nextFloat() < WIND_CHANGE_FREQUENCY) {
-            float randomChangeX = (random.nextFloat() - 0.5f) * MAX_WIND_CHANGE;
-            float randomChangeY = (random.nextFloat() - 0.5f) * MAX_WIND_CHANGE;
-            targetWind.set(randomChangeX, randomChangeY);
-            targetWind.limit(WIND_MAX_SPEED);
-            windSound.play(windVolume);
+    private void adjustWindConditions(float delta) {
+        if (windTimeline.advance(delta) > 0) {
+            notifyWindShift();
         }
+        windField.advance(delta);
+        wind.lerp(windTimeline.getTarget(), LERP_RATE * delta);
+    }
 
-        wind.lerp(targetWind, LERP_FACTOR);
-
-        if (random.nextFloat() < GUST_PROBABILITY) {
-            targetWind.add((random.nextFloat() - 0.5f) * 2 * MAX_WIND_CHANGE,
-                    (random.nextFloat() - 0.5f) * 2 * MAX_WIND_CHANGE);
-            targetWind.limit(WIND_MAX_SPEED);
-            windSound.play(windVolume);
+    // Share of the hitbox covered by clouds, capped at one and eased so visibility does not flicker
+    private void updateCloudCover(Player player, float delta) {
+        float left = player.getX();
+        float bottom = player.getY();
+        float covered = 0;
+        clouds.queryOverlaps(left, bottom, ZEPPELIN_WIDTH, ZEPPELIN_HEIGHT, overlapping);
+        for (int k = 0; k < overlapping.size; k++) {
+            int i = overlapping.get(k);
+            float cloudX = clouds.getX(i);
+            float cloudY = clouds.getY(i);
+            float overlapX = Math.min(left + ZEPPELIN_WIDTH, cloudX + clouds.getWidth(i)) - Math.max(left, cloudX);
+            float overlapY = Math.min(bottom + ZEPPELIN_HEIGHT, cloudY + clouds.getHeight(i)) - Math.max(bottom, cloudY);
+            covered += overlapX * overlapY;
         }
+        float target = Math.min(1f, covered / (ZEPPELIN_WIDTH * ZEPPELIN_HEIGHT));
+        cloudCover += (target - cloudCover) * Math.min(1f, COVER_RATE * delta);
     }
 
-    public void draw(SpriteBatch batch) {
-        for (Cloud cloud : clouds) {
-            cloud.draw(batch);
+    private void notifyWindShift() {
+        if (windListener != null) {
+            windListener.onWindShift();
         }
     }
 
+    public void draw(Batch batch, TextureRegion cloudRegion, float alpha) {
+        clouds.draw(batch, cloudRegion, alpha);
+    }
+
     public void drawCompass(ShapeRenderer shapeRenderer, float x, float y) {
         float radius = 40;
-        float angle = wind.angleRad();
+        // The needle shows the wind where the compass sits on the map
+        float angle = windField.sample(x, y, sampledWind).add(wind).angleRad();
         float needleLength = 40;
 
         shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
@@ -107,37 +148,29 @@ public class EnvironmentalManager {
         return wind;
     }
 
-    public int getNumClouds() {
-        return clouds.size();
+    public WindField getWindField() {
+        return windField;
     }
 
-    private static class Cloud {
-        private final Texture texture;
-        private final Vector2 position;
-        private final Vector2 velocity;
-        private final float width;
-        private final float height;
+    // The wind the zeppelin feels apart from turbulence: the level's wind plus the local field
+    public Vector2 getWindAt(float x, float y, Vector2 out) {
+        return windField.sample(x, y, out).add(wind);
+    }
 
-        public Cloud(Texture texture, float startX, float startY, float width, float height) {
-            this.texture = texture;
-            this.position = new Vector2(startX, startY);
-            this.velocity = new Vector2(0, 0);
-            this.width = width;
-            this.height = height;
-        }
+    public WindTimeline getWindTimeline() {
+        return windTimeline;
+    }
 
-        public void update(Vector2 wind, float delta) {
-            velocity.set(wind);
-            position.add(velocity.x * delta, velocity.y * delta);
+    // From 0 in clear air to 1 deep inside cloud cover
+    public float getCloudCover() {
+        return cloudCover;
+    }
 
-            if (position.x > Gdx.graphics.getWidth()) position.x = -width;
-            if (position.x < -width) position.x = Gdx.graphics.getWidth();
-            if (position.y > Gdx.graphics.getHeight()) position.y = -height;
-            if (position.y < -height) position.y = Gdx.graphics.getHeight();
-        }
+    public int getNumClouds() {
+        return clouds.size();
+    }
 
-        public void draw(SpriteBatch batch) {
-            batch.draw(texture, position.x, position.y, width, height);
-        }
+    public CloudField getClouds() {
+        return clouds;
     }
 }
@@ -0,0 +1,148 @@
+package com.mygdx.game;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * End-to-end measurement of the game as players run it: a level flown by the
+ * {@link ScriptedController} for a fixed time, every frame rendered as fast as the machine allows.
+ * Frames are timed from one {@link #frame()} call to the next after a short warm-up, and the result
+ * is a single line of JSON with frame rate and frame time percentiles, the heap's high-water mark
+ * and the collections that ran while measuring.
+ */
+public class FlightBenchmark {
+    public static final int DEFAULT_LEVEL = 1;
+    public static final float DEFAULT_SECONDS = 60;
+    private static final float WARMUP_SECONDS = 3;
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+    private final int level;
+    private final String zeppelinPath;
+    private final float seconds;
+    private final LogHistogram frameNanos = new LogHistogram();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+    private long startNanos;
+    private long measureNanos;
+    private long lastFrameNanos;
+    private long gcCountAtStart;
+    private long gcMillisAtStart;
+
+    public FlightBenchmark(int level, String zeppelinPath, float seconds) {
+        this.level = level;
+        this.zeppelinPath = zeppelinPath;
+        this.seconds = seconds;
+    }
+
+    /**
+     * Reads "[level] [L19|L20] [seconds]", the arguments after the launcher's benchmark flag.
+     */
+    public static FlightBenchmark fromArguments(String[] args, int offset) {
+        int level = args.length > offset ? Integer.parseInt(args[offset]) : DEFAULT_LEVEL;
+        String zeppelin = args.length > offset + 1 ? args[offset + 1] : "L19";
+        float seconds = args.length > offset + 2 ? Float.parseFloat(args[offset + 2]) : DEFAULT_SECONDS;
+        String path;
+        if (zeppelin.equalsIgnoreCase("L19")) {
+            path = ZeppelinSelection.ZEPPELIN_L19;
+        } else if (zeppelin.equalsIgnoreCase("L20")) {
+            path = ZeppelinSelection.ZEPPELIN_L20;
+        } else {
+            throw new IllegalArgumentException("Unknown zeppelin " + zeppelin + "; expected L19 or L20");
+        }
+        return new FlightBenchmark(level, path, seconds);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getZeppelinPath() {
+        return zeppelinPath;
+    }
+
+    /**
+     * Called once per rendered frame of the level; returns true once the time is up.
+     */
+    public boolean frame() {
+        long now = System.nanoTime();
+        if (startNanos == 0) {
+            startNanos = now;
+        } else if (measureNanos == 0) {
+            if (now - startNanos >= WARMUP_SECONDS * 1e9) {
+                startMeasuring(now);
+            }
+        } else {
+            frameNanos.record(now - lastFrameNanos);
+        }
+        lastFrameNanos = now;
+        return measureNanos != 0 && now - measureNanos >= seconds * 1e9;
+    }
+
+    private void startMeasuring(long now) {
+        measureNanos = now;
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+        }
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+    }
+
+    /**
+     * The results as one line of JSON; the governor's state is included when there is one.
+     */
+    public String report(QualityGovernor quality) {
+        double elapsed = (lastFrameNanos - measureNanos) / 1e9;
+        StringBuilder json = new StringBuilder(512);
+        json.append(String.format(Locale.ROOT, "{\"level\":%d,\"zeppelin\":\"%s\",\"seconds\":%.2f,\"frames\":%d,\"fps\":%.1f",
+                level, GameplayAtlas.regionName(zeppelinPath), elapsed, frameNanos.getCount(),
+                elapsed > 0 ? frameNanos.getCount() / elapsed : 0));
+        // A frame time percentile is the frame rate at the matching low percentile
+        for (double percentile : PERCENTILES) {
+            long nanos = frameNanos.getPercentile(percentile);
+            json.append(String.format(Locale.ROOT, ",\"frameMsP%d\":%.3f,\"fpsP%d\":%.1f",
+                    (int) percentile, nanos / 1e6, 100 - (int) percentile, nanos > 0 ? 1e9 / nanos : 0));
+        }
+        json.append(String.format(Locale.ROOT, ",\"frameMsMax\":%.3f,\"peakHeapMb\":%.1f,\"gcCount\":%d,\"gcMillis\":%d",
+                frameNanos.getMax() / 1e6, peakHeapBytes() / (1024.0 * 1024.0),
+                gcCount() - gcCountAtStart, gcMillis() - gcMillisAtStart));
+        if (quality != null) {
+            json.append(",\"quality\":\"").append(quality.getTier().name())
+                    .append("\",\"downgrades\":").append(quality.getDowngrades())
+                    .append(",\"upgrades\":").append(quality.getUpgrades());
+        }
+        json.append(",\"java\":\"").append(System.getProperty("java.version"))
+                .append("\",\"processors\":").append(Runtime.getRuntime().availableProcessors()).append('}');
+        return json.toString();
+    }
+
+    // Summed over the heap pools; each pool peaks on its own, so this can overstate the true peak
+    private long peakHeapBytes() {
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                bytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        return bytes;
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,271 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.StringBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Times each phase of a frame into fixed-size histograms and samples the GL counters. Statistics
+ * are kept per window; at the end of each window they can be appended to a JSON-lines or CSV file
+ * on a background thread, and the overlay text shows the window collected so far.
+ */
+public class FrameProfiler {
+    public enum Phase {
+        INPUT,
+        SIMULATION,
+        SPRITES,
+        SHAPES,
+        HUD,
+        STAGE,
+        FRAME
+    }
+
+    public enum Counter {
+        DRAW_CALLS,
+        TEXTURE_BINDINGS,
+        SHADER_SWITCHES,
+        GL_CALLS
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final double[] PERCENTILES = {50, 95, 99};
+    private static final int VALUES_PER_METRIC = 5;
+    private static final long OVERLAY_REFRESH_NANOS = 500_000_000L;
+
+    private final LogHistogram[] phases = new LogHistogram[PHASES.length];
+    private final LogHistogram[] counters = new LogHistogram[COUNTERS.length];
+    private final long[] phaseStart = new long[PHASES.length];
+    private final GLProfiler glProfiler;
+    private final File exportFile;
+    private final boolean csv;
+    private final long windowNanos;
+    private final ExecutorService exporter;
+    private final StringBuilder overlayText = new StringBuilder(512);
+    private long windowStart;
+    private long lastOverlayRefresh;
+
+    /**
+     * @param glProfiler source of GL counters, or null to skip them
+     * @param exportFile file the window statistics are appended to, or null to keep them in memory;
+     *                   a name ending in ".csv" selects CSV, anything else JSON lines
+     */
+    public FrameProfiler(GLProfiler glProfiler, File exportFile, float windowSeconds) {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LogHistogram();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LogHistogram();
+        }
+        this.glProfiler = glProfiler;
+        this.exportFile = exportFile;
+        this.csv = exportFile != null && exportFile.getName().endsWith(".csv");
+        this.windowNanos = (long) (windowSeconds * 1e9);
+        this.exporter = exportFile == null ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "frame-profile-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.windowStart = System.nanoTime();
+    }
+
+    public void setGlCountersEnabled(boolean enabled) {
+        if (glProfiler == null) {
+            return;
+        }
+        if (enabled) {
+            glProfiler.enable();
+        } else {
+            glProfiler.disable();
+        }
+    }
+
+    public void beginFrame() {
+        if (glProfiler != null && glProfiler.isEnabled()) {
+            glProfiler.reset();
+        }
+        begin(Phase.FRAME);
+    }
+
+    public void begin(Phase phase) {
+        phaseStart[phase.ordinal()] = System.nanoTime();
+    }
+
+    public void end(Phase phase) {
+        phases[phase.ordinal()].record(System.nanoTime() - phaseStart[phase.ordinal()]);
+    }
+
+    public void endFrame() {
+        end(Phase.FRAME);
+        if (glProfiler != null && glProfiler.isEnabled()) {
+            counters[Counter.DRAW_CALLS.ordinal()].record(glProfiler.getDrawCalls());
+            counters[Counter.TEXTURE_BINDINGS.ordinal()].record(glProfiler.getTextureBindings());
+            counters[Counter.SHADER_SWITCHES.ordinal()].record(glProfiler.getShaderSwitches());
+            counters[Counter.GL_CALLS.ordinal()].record(glProfiler.getCalls());
+        }
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos) {
+            if (exporter != null) {
+                exporter.execute(new ExportTask(System.currentTimeMillis(), snapshot()));
+            }
+            for (LogHistogram histogram : phases) {
+                histogram.reset();
+            }
+            for (LogHistogram histogram : counters) {
+                histogram.reset();
+            }
+            windowStart = now;
+        }
+    }
+
+    public LogHistogram getPhase(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public LogHistogram getCounter(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * Rebuilds the overlay text at most twice a second; returns true when it changed.
+     */
+    public boolean updateOverlay() {
+        long now = System.nanoTime();
+        if (now - lastOverlayRefresh < OVERLAY_REFRESH_NANOS) {
+            return false;
+        }
+        lastOverlayRefresh = now;
+        overlayText.setLength(0);
+        overlayText.append("phase  p50/p95/p99/max us");
+        for (Phase phase : PHASES) {
+            LogHistogram histogram = phases[phase.ordinal()];
+            overlayText.append('\n').append(phase.name()).append(' ');
+            for (double percentile : PERCENTILES) {
+                overlayText.append(histogram.getPercentile(percentile) / 1000).append('/');
+            }
+            overlayText.append(histogram.getMax() / 1000);
+        }
+        if (glProfiler != null && glProfiler.isEnabled()) {
+            for (Counter counter : COUNTERS) {
+                LogHistogram histogram = counters[counter.ordinal()];
+                overlayText.append('\n').append(counter.name()).append(' ')
+                        .append(histogram.getPercentile(50)).append('/').append(histogram.getMax());
+            }
+        }
+        return true;
+    }
+
+    public StringBuilder getOverlayText() {
+        return overlayText;
+    }
+
+    public void dispose() {
+        setGlCountersEnabled(false);
+        if (exporter != null) {
+            exporter.shutdown();
+        }
+    }
+
+    // count, p50, p95, p99 and max for every phase followed by every counter
+    private long[] snapshot() {
+        long[] values = new long[(phases.length + counters.length) * VALUES_PER_METRIC];
+        int offset = 0;
+        for (LogHistogram histogram : phases) {
+            offset = copyStats(histogram, values, offset);
+        }
+        for (LogHistogram histogram : counters) {
+            offset = copyStats(histogram, values, offset);
+        }
+        return values;
+    }
+
+    private static int copyStats(LogHistogram histogram, long[] values, int offset) {
+        values[offset++] = histogram.getCount();
+        for (double percentile : PERCENTILES) {
+            values[offset++] = histogram.getPercentile(percentile);
+        }
+        values[offset++] = histogram.getMax();
+        return offset;
+    }
+
+    private final class ExportTask implements Runnable {
+        private final long timestamp;
+        private final long[] values;
+
+        ExportTask(long timestamp, long[] values) {
+            this.timestamp = timestamp;
+            this.values = values;
+        }
+
+        @Override
+        public void run() {
+            boolean writeHeader = csv && !exportFile.exists();
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(exportFile, true), StandardCharsets.UTF_8)) {
+                if (writeHeader) {
+                    out.write("time,metric,unit,count,p50,p95,p99,max\n");
+                }
+                out.write(csv ? toCsv() : toJson());
+            } catch (IOException e) {
+                Gdx.app.error("FrameProfiler", "Could not export frame profile to " + exportFile, e);
+            }
+        }
+
+        private String toCsv() {
+            java.lang.StringBuilder text = new java.lang.StringBuilder();
+            int offset = 0;
+            for (Phase phase : PHASES) {
+                appendCsvRow(text, phase.name(), "ns", offset);
+                offset += VALUES_PER_METRIC;
+            }
+            for (Counter counter : COUNTERS) {
+                appendCsvRow(text, counter.name(), "count", offset);
+                offset += VALUES_PER_METRIC;
+            }
+            return text.toString();
+        }
+
+        private void appendCsvRow(java.lang.StringBuilder text, String metric, String unit, int offset) {
+            text.append(timestamp).append(',').append(metric).append(',').append(unit);
+            for (int i = 0; i < VALUES_PER_METRIC; i++) {
+                text.append(',').append(values[offset + i]);
+            }
+            text.append('\n');
+        }
+
+        private String toJson() {
+            java.lang.StringBuilder text = new java.lang.StringBuilder();
+            text.append("{\"time\":").append(timestamp).append(",\"phasesNanos\":{");
+            int offset = 0;
+            for (Phase phase : PHASES) {
+                appendJsonMetric(text, phase.name(), offset, phase.ordinal() > 0);
+                offset += VALUES_PER_METRIC;
+            }
+            text.append("},\"gl\":{");
+            for (Counter counter : COUNTERS) {
+                appendJsonMetric(text, counter.name(), offset, counter.ordinal() > 0);
+                offset += VALUES_PER_METRIC;
+            }
+            return text.append("}}\n").toString();
+        }
+
+        private void appendJsonMetric(java.lang.StringBuilder text, String metric, int offset, boolean comma) {
+            if (comma) {
+                text.append(',');
+            }
+            text.append('"').append(metric).append("\":{\"count\":").append(values[offset])
+                    .append(",\"p50\":").append(values[offset + 1])
+                    .append(",\"p95\":").append(values[offset + 2])
+                    .append(",\"p99\":").append(values[offset + 3])
+                    .append(",\"max\":").append(values[offset + 4]).append('}');
+        }
+    }
+}
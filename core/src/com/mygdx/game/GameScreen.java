@@ -3,8 +3,6 @@ package com.mygdx.game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.assets.AssetManager;
-import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
@@ -12,24 +10,40 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
+import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class GameScreen implements Screen {
+    private static final String MAP = "images/map1.png";
+    private static final String CLOUD = "images/cloud.png";
+    private static final String BACKGROUND = "images/background.png";
+
     private final MyGdxGame game;
     private final SpriteBatch batch;
-    private final Texture mapTexture;
-    private final Texture zeppelinTexture;
+    private final GameplayAtlas sprites;
+    private final TextureRegion mapRegion;
+    private final String zeppelinPath;
+    private final TextureRegion zeppelinRegion;
     private final Texture backgroundTexture;
-    private final Texture cloudTexture;
+    private final TextureRegion cloudRegion;
     private final OrthographicCamera camera;
-    private final Player player;
-    private final EnvironmentalManager environmentalManager;
+    private Simulation simulation;
+    private Player player;
+    private EnvironmentalManager environmentalManager;
     private final ShapeRenderer shapeRenderer;
-    private final Vector2 finalDestination;
+    private final CloudLayerCache cloudCache;
+    private Vector2 finalDestination;
     private final Stage stage;
     private final Label speedLabel;
     private final Label windLabel;
@@ -38,69 +52,123 @@ public class GameScreen implements Screen {
     private final Label cloudsLabel;
     private final Skin uiSkin;
     private final Container<Table> container;
-    private final AssetManager assetManager;
-    private float gameTime;
-    private static final float MAX_GAME_TIME = 60f;
+    private final ResourceCache resources;
     private static final float ENDPOINT_RADIUS = 3f;
+    private static final float MIN_FOG_COVER = 0.01f;
+    private static final float MAX_FOG_ALPHA = 0.6f;
+    private static final float NO_FLY_ALPHA = 0.3f;
+    private final SimulationClock clock;
+    private final HudFormatter hud = new HudFormatter();
+    private final AllocationTracker allocationTracker;
+    private InputRecording recording;
+    private final FrameProfiler profiler;
+    private final QualityGovernor quality;
+    private float hudElapsed;
+    private final Label profilerLabel;
+    private final ExecutorService plannerThread;
+    private final AutopilotController autopilot;
+    private final ExecutorService levelThread;
+    private final HandoffThread windThread;
+    private final LevelCache levels;
+    private int nextLevel;
+    private long nextSeed;
+    private boolean autopilotEnabled;
+    // Flies every step when set, and restarts the level instead of showing a dialog when it ends
+    private SimulationController controller;
+    // Runs the autopilot flew any part of stay off the leaderboards
+    private boolean autopilotUsed;
+    private final GhostStore ghosts;
+    private GhostTrack ghostTrack;
+    // Best earlier run of this level, or null
+    private GhostReader ghost;
+    private static final float GHOST_ALPHA = 0.35f;
+    private boolean restartRequested;
     private boolean isGameOver;
-    private boolean isZeppelinSoundPlaying = false;
-    private final int level;
+    private int level;
     private float zeppelinWidth;
     private float zeppelinHeight;
 
-    private final Sound zeppelinSound;
-    private final Sound windSound;
-    private final Sound gameOverSound;
-    private final Sound winSound;
+    private final GdxAudioBackend audioBackend;
+    private final AudioManager audio;
+    private float windSwell;
     private static final float ZEPPELIN_VOLUME = 0.9f;
     private static final float WIND_VOLUME = 0.06f;
+    // Wind strength at which the wind loop reaches WIND_VOLUME, and how a shift swells it
+    private static final float FULL_WIND = 2f;
+    private static final float WIND_SHIFT_SWELL = 0.5f;
+    private static final float SWELL_DECAY = 0.25f;
     private static final float GAME_OVER_VOLUME = 0.9f;
     private static final float WIN_VOLUME = 0.9f;
 
-    public GameScreen(MyGdxGame game, SpriteBatch batch, Texture mapTexture, Texture zeppelinTexture, Skin uiSkin, AssetManager assetManager, int level) {
+    /**
+     * The batch and skin are shared and stay owned by the game; textures and sounds are acquired
+     * from the cache here and released again in {@link #dispose()}.
+     */
+    public GameScreen(MyGdxGame game, SpriteBatch batch, ResourceCache resources, Skin uiSkin, String zeppelinPath, int level) {
         this.game = game;
         this.batch = batch;
-        this.mapTexture = mapTexture;
-        this.zeppelinTexture = zeppelinTexture;
+        this.resources = resources;
         this.uiSkin = uiSkin;
-        this.assetManager = assetManager;
-        this.level = level;
+        this.zeppelinPath = zeppelinPath;
+        this.sprites = new GameplayAtlas(resources);
+        this.mapRegion = sprites.find(MAP);
+        this.zeppelinRegion = sprites.find(zeppelinPath);
 
         camera = new OrthographicCamera(800, 600);
         camera.position.set(400, 300, 0);
         camera.update();
 
-        zeppelinSound = assetManager.get("sounds/zeppelinSound.mp3", Sound.class);
-        windSound = assetManager.get("sounds/WindSound.mp3", Sound.class);
-        gameOverSound = assetManager.get("sounds/gameOverSound.mp3", Sound.class);
-        winSound = assetManager.get("sounds/winSound.mp3", Sound.class);
-
-        cloudTexture = new Texture(Gdx.files.internal("images/cloud.png"));
-        environmentalManager = new EnvironmentalManager(windSound, WIND_VOLUME, cloudTexture, level);
-        player = new Player(620, 500);
-        shapeRenderer = new ShapeRenderer();
-        finalDestination = new Vector2(60, 297);
-        gameTime = MAX_GAME_TIME;
-        isGameOver = false;
-
-        backgroundTexture = new Texture(Gdx.files.internal("images/background.png"));
+        audioBackend = new GdxAudioBackend(resources);
+        audio = new AudioManager(audioBackend, AudioManager.DEFAULT_VOICES);
+
+        // Route searches run here so a slow plan never stalls a frame
+        plannerThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autopilot-planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        autopilot = new AutopilotController(plannerThread);
+        // The next level is generated while this one is flown
+        levelThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "level-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        levels = new LevelCache(levelThread, LevelCache.DEFAULT_CAPACITY);
+        // Wind field generations are computed here a period ahead of when the simulation needs them
+        windThread = new HandoffThread("wind-field");
+        ghosts = GhostStore.fromSystemProperties();
+
+        cloudRegion = sprites.find(CLOUD);
+        backgroundTexture = resources.acquire(BACKGROUND, Texture.class);
+        shapeRenderer = resources.track(new ShapeRenderer(), "game shape renderer");
+        cloudCache = resources.track(new CloudLayerCache(), "cloud layer cache");
+        clock = new SimulationClock();
+        allocationTracker = Boolean.getBoolean("zeppelin.trackAllocations") ? new AllocationTracker() : null;
+        profiler = createProfiler();
+        quality = QualityGovernor.fromSystemProperties();
+        quality.setListener((from, to, intervalMillis, workMillis) -> {
+            Gdx.app.log("QualityGovernor", String.format(Locale.ROOT, "%s -> %s at %.1f ms per frame, %.1f ms of work",
+                    from, to, intervalMillis, workMillis));
+            applyQuality();
+        });
 
         // Determine Zeppelin size based on the texture used
-        if (zeppelinTexture.equals(assetManager.get("images/Zepplin L19.png", Texture.class))) {
+        if (zeppelinPath.equals(ZeppelinSelection.ZEPPELIN_L19)) {
             zeppelinWidth = 45;
             zeppelinHeight = 25;
-        } else if (zeppelinTexture.equals(assetManager.get("images/Zepplin L20.png", Texture.class))) {
+        } else if (zeppelinPath.equals(ZeppelinSelection.ZEPPELIN_L20)) {
             zeppelinWidth = 45;
             zeppelinHeight = 10;
         }
-        stage = new Stage(new ScreenViewport());
+        stage = resources.track(new Stage(new ScreenViewport()), "game stage");
         Gdx.input.setInputProcessor(stage);
 
         speedLabel = new Label("Speed: 0", uiSkin, "green");
         windLabel = new Label("Wind: 0,0", uiSkin, "white");
         timerLabel = new Label("Time: 60", uiSkin, "red");
-        levelLabel = new Label("Level: " + level, uiSkin, "white");
-        cloudsLabel = new Label("Clouds: " + environmentalManager.getNumClouds(), uiSkin, "blue");
+        levelLabel = new Label("", uiSkin, "white");
+        cloudsLabel = new Label("", uiSkin, "blue");
 
         Table table = new Table();
         table.setBackground(new TextureRegionDrawable(new TextureRegion(backgroundTexture)));
@@ -122,49 +190,158 @@ public class GameScreen implements Screen {
         container.setPosition(Gdx.graphics.getWidth() - backgroundWidth - 10, 10);
 
         stage.addActor(container);
+
+        profilerLabel = new Label("", uiSkin, "white");
+        profilerLabel.setPosition(10, Gdx.graphics.getHeight() - 10, Align.topLeft);
+        profilerLabel.setVisible(false);
+        stage.addActor(profilerLabel);
+
+        startLevel(level);
+    }
+
+    /**
+     * Resets the simulation, timer, sounds and HUD for the given level. Renderers, the stage and
+     * textures are kept, so moving on to the next level costs the same every time.
+     */
+    private void startLevel(int level) {
+        saveRecording();
+        this.level = level;
+        long seed = level == nextLevel ? nextSeed : levelSeed(level);
+        simulation = new Simulation(levels.get(level, seed), Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        nextLevel = level + 1;
+        nextSeed = levelSeed(nextLevel);
+        levels.prefetch(nextLevel, nextSeed);
+        player = simulation.getPlayer();
+        environmentalManager = simulation.getEnvironment();
+        environmentalManager.getWindField().setExecutor(windThread);
+        environmentalManager.setWindListener(() -> windSwell = WIND_SHIFT_SWELL);
+        finalDestination = simulation.getDestination();
+        cloudCache.setField(environmentalManager.getClouds());
+        applyQuality();
+        quality.reset();
+        recording = System.getProperty("zeppelin.recordDir") != null
+                ? new InputRecording(level, simulation.getSeed(), clock.getTickRate(),
+                        environmentalManager.getWindField().getColumns(), Gdx.graphics.getWidth(), Gdx.graphics.getHeight())
+                : null;
+
+        ghostTrack = new GhostTrack(level, clock.getTickRate());
+        ghost = ghosts.load(level, simulation.getSeed(), clock.getTickRate());
+
+        clock.reset();
+        restartRequested = false;
+        isGameOver = false;
+        windSwell = 0;
+        autopilot.reset();
+        autopilotUsed = false;
+        audio.stop(AudioManager.Cue.ENGINE);
+        audio.stop(AudioManager.Cue.WIND);
+        levelLabel.setText("Level: " + level);
+        updateUI();
+    }
+
+    private void applyQuality() {
+        QualityGovernor.Tier tier = quality.getTier();
+        environmentalManager.getClouds().setVisibleShare(tier.cloudShare);
+        cloudCache.setDetail(tier.layerDetail);
+    }
+
+    // -Dzeppelin.profileFile=<file.jsonl|file.csv> appends one line of statistics per window
+    private static FrameProfiler createProfiler() {
+        String exportPath = System.getProperty("zeppelin.profileFile");
+        float windowSeconds = Float.parseFloat(System.getProperty("zeppelin.profileInterval", "10"));
+        FrameProfiler profiler = new FrameProfiler(new GLProfiler(Gdx.graphics), exportPath == null ? null : new File(exportPath), windowSeconds);
+        profiler.setGlCountersEnabled(exportPath != null);
+        return profiler;
+    }
+
+    // Each level is one map unless -Dzeppelin.seed=N picks another set of them or
+    // -Dzeppelin.randomLevels=true a new one on every play
+    private static long levelSeed(int level) {
+        if (Boolean.getBoolean("zeppelin.randomLevels")) {
+            return System.nanoTime();
+        }
+        Long seed = Long.getLong("zeppelin.seed");
+        return seed != null ? seed * 31 + level : LevelLayout.standardSeed(level);
     }
 
     private void handleInput() {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            boolean visible = !profilerLabel.isVisible();
+            profilerLabel.setVisible(visible);
+            profiler.setGlCountersEnabled(visible || System.getProperty("zeppelin.profileFile") != null);
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.P)) {
+            autopilotEnabled = !autopilotEnabled;
+            autopilot.reset();
+        }
         if (!isGameOver) {
-            if (Gdx.input.isKeyPressed(Input.Keys.A)) {
-                player.startMoving();
-                if (!isZeppelinSoundPlaying) {
-                    zeppelinSound.loop(ZEPPELIN_VOLUME);
-                    isZeppelinSoundPlaying = true;
-                }
-                player.adjustSpeed(0.1f);
-            }
-            if (Gdx.input.isKeyPressed(Input.Keys.Z)) {
-                player.adjustSpeed(-0.1f);
-            }
-            if (Gdx.input.isKeyPressed(Input.Keys.UP)) {
-                player.moveUp();
-            }
-            if (Gdx.input.isKeyPressed(Input.Keys.DOWN)) {
-                player.moveDown();
-            }
             if (Gdx.input.isKeyJustPressed(Input.Keys.R)) {
                 restartGame();
             }
         }
     }
 
+    private int pollHeldKeys() {
+        int input = PlayerInput.NONE;
+        if (Gdx.input.isKeyPressed(Input.Keys.A)) {
+            input |= PlayerInput.ACCELERATE;
+            if (audio.getActiveVoices(AudioManager.Cue.ENGINE) == 0) {
+                audio.loop(AudioManager.Cue.ENGINE, ZEPPELIN_VOLUME);
+            }
+        }
+        if (Gdx.input.isKeyPressed(Input.Keys.Z)) {
+            input |= PlayerInput.DECELERATE;
+        }
+        if (Gdx.input.isKeyPressed(Input.Keys.UP)) {
+            input |= PlayerInput.UP;
+        }
+        if (Gdx.input.isKeyPressed(Input.Keys.DOWN)) {
+            input |= PlayerInput.DOWN;
+        }
+        return input;
+    }
+
+    // P hands the controls to the autopilot, which is asked again every step like a recorded run
+    private int autopilotInput() {
+        autopilotUsed = true;
+        int input = autopilot.nextInput(simulation);
+        if ((input & PlayerInput.ACCELERATE) != 0 && audio.getActiveVoices(AudioManager.Cue.ENGINE) == 0) {
+            audio.loop(AudioManager.Cue.ENGINE, ZEPPELIN_VOLUME);
+        }
+        return input;
+    }
+
+    // The simulation itself restarts on the next step, so recordings capture the restart as input
     private void restartGame() {
-        player.reset(620, 500);
-        gameTime = MAX_GAME_TIME;
-        zeppelinSound.stop();
-        windSound.stop();
-        isZeppelinSoundPlaying = false;
+        restartRequested = true;
+        clock.reset();
+        autopilot.reset();
+        autopilotUsed = false;
+        audio.stop(AudioManager.Cue.ENGINE);
+        audio.stop(AudioManager.Cue.WIND);
         isGameOver = false;
         player.setPaused(false);
     }
 
     private void updateUI() {
-        speedLabel.setText("Speed: " + player.getSpeed());
+        if (hud.updateSpeed(player.getSpeed())) {
+            speedLabel.setText(hud.getSpeedText());
+        }
         Vector2 wind = environmentalManager.getWind();
-        windLabel.setText(String.format("Wind: %.2f, %.2f", wind.x, wind.y));
-        timerLabel.setText(String.format("Time: %.2f s", gameTime));
-        cloudsLabel.setText("Clouds: " + environmentalManager.getNumClouds());
+        if (hud.updateWind(wind.x, wind.y)) {
+            windLabel.setText(hud.getWindText());
+        }
+        if (hud.updateTime(simulation.getRemainingTime())) {
+            timerLabel.setText(hud.getTimeText());
+        }
+        if (hud.updateClouds(environmentalManager.getNumClouds())) {
+            cloudsLabel.setText(hud.getCloudsText());
+        }
+        if (profilerLabel.isVisible() && profiler.updateOverlay()) {
+            profilerLabel.setText(profiler.getOverlayText().append("\nQUALITY ").append(quality.getTier().name()));
+            profilerLabel.pack();
+            profilerLabel.setPosition(10, stage.getViewport().getWorldHeight() - 10, Align.topLeft);
+        }
     }
 
     @Override
@@ -172,35 +349,108 @@ public class GameScreen implements Screen {
         Gdx.input.setInputProcessor(stage);
     }
 
+    // Null unless started with -Dzeppelin.trackAllocations=true
+    public AllocationTracker getAllocationTracker() {
+        return allocationTracker;
+    }
+
+    /**
+     * Hands the flight to a controller for good, as for benchmarks; its runs are not recorded.
+     */
+    public void setController(SimulationController controller) {
+        this.controller = controller;
+    }
+
+    public QualityGovernor getQualityGovernor() {
+        return quality;
+    }
+
     @Override
     public void render(float delta) {
+        long start = System.nanoTime();
+        if (allocationTracker == null) {
+            renderFrame(delta);
+        } else {
+            allocationTracker.beginFrame();
+            renderFrame(delta);
+            allocationTracker.endFrame();
+        }
+        quality.record(delta, (System.nanoTime() - start) / 1e9f);
+    }
+
+    private void renderFrame(float delta) {
+        profiler.beginFrame();
+        profiler.begin(FrameProfiler.Phase.INPUT);
         handleInput();
+        // Held keys fly the zeppelin, engine sound included, only while a level is being played
+        int input = isGameOver ? PlayerInput.NONE : pollHeldKeys();
+        audio.update(delta);
+        profiler.end(FrameProfiler.Phase.INPUT);
         if (isGameOver) {
+            profiler.begin(FrameProfiler.Phase.STAGE);
             stage.act(Math.min(Gdx.graphics.getDeltaTime(), 1 / 30f));
             stage.draw();
+            profiler.end(FrameProfiler.Phase.STAGE);
+            profiler.endFrame();
             return;
         }
 
-        if (player.hasGameStarted()) {
-            gameTime -= delta;
+        profiler.begin(FrameProfiler.Phase.SIMULATION);
+        int steps = clock.advance(delta);
+        for (int i = 0; i < steps && !isGameOver; i++) {
+            int stepInput = controller != null ? controller.nextInput(simulation)
+                    : autopilotEnabled ? autopilotInput() : input;
+            if (restartRequested) {
+                stepInput |= PlayerInput.RESTART;
+                restartRequested = false;
+                ghostTrack.clear();
+                if (ghost != null) {
+                    ghost.rewind();
+                }
+            }
+            if (recording != null) {
+                recording.record(stepInput);
+            }
+            simulation.step(clock.getStep(), stepInput);
+            // Both runs are timed from the first step the zeppelin moves
+            if (player.hasGameStarted()) {
+                ghostTrack.record(player.getX(), player.getY());
+                if (ghost != null) {
+                    ghost.advance();
+                }
+            }
+            checkGameEndConditions();
         }
+        float alpha = clock.getAlpha();
+        if (!isGameOver) {
+            updateWindAudio(delta);
+        }
+        profiler.end(FrameProfiler.Phase.SIMULATION);
 
-        player.update(delta);
-        environmentalManager.update(player, delta);
-
+        profiler.begin(FrameProfiler.Phase.SPRITES);
+        cloudCache.prepare(batch, cloudRegion);
         Gdx.gl.glClearColor(1, 1, 1, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
         camera.update();
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
-        batch.draw(mapTexture, 0, 0, 800, 600);
-        batch.draw(zeppelinTexture, player.getPosition().x, player.getPosition().y, zeppelinWidth, zeppelinHeight);
+        batch.draw(mapRegion, 0, 0, 800, 600);
+        if (ghost != null && ghost.hasStarted()) {
+            batch.setColor(1, 1, 1, GHOST_ALPHA);
+            batch.draw(zeppelinRegion, ghost.getInterpolatedX(alpha), ghost.getInterpolatedY(alpha), zeppelinWidth, zeppelinHeight);
+            batch.setColor(Color.WHITE);
+        }
+        batch.draw(zeppelinRegion, player.getInterpolatedX(alpha), player.getInterpolatedY(alpha), zeppelinWidth, zeppelinHeight);
 
-        environmentalManager.draw(batch);
+        cloudCache.draw(batch, cloudRegion, alpha);
         batch.end();
+        profiler.end(FrameProfiler.Phase.SPRITES);
 
+        profiler.begin(FrameProfiler.Phase.SHAPES);
         shapeRenderer.setProjectionMatrix(camera.combined);
+        drawCloudFog();
+        drawNoFlyZones();
 
         environmentalManager.drawCompass(shapeRenderer, 70, 70);
 
@@ -208,12 +458,65 @@ public class GameScreen implements Screen {
         shapeRenderer.setColor(Color.RED);
         shapeRenderer.circle(finalDestination.x, finalDestination.y, ENDPOINT_RADIUS);
         shapeRenderer.end();
+        profiler.end(FrameProfiler.Phase.SHAPES);
+
+        profiler.begin(FrameProfiler.Phase.HUD);
+        // Degraded tiers refresh the labels less often
+        hudElapsed += delta;
+        if (hudElapsed >= quality.getTier().hudInterval) {
+            hudElapsed = 0;
+            updateUI();
+        }
+        profiler.end(FrameProfiler.Phase.HUD);
 
-        updateUI();
+        profiler.begin(FrameProfiler.Phase.STAGE);
         stage.act(Math.min(Gdx.graphics.getDeltaTime(), 1 / 30f));
         stage.draw();
+        profiler.end(FrameProfiler.Phase.STAGE);
+        profiler.endFrame();
+    }
 
-        checkGameEndConditions();
+    // One wind loop whose volume follows the wind, instead of a new voice for every shift
+    private void updateWindAudio(float delta) {
+        windSwell = Math.max(0, windSwell - SWELL_DECAY * delta);
+        float strength = Math.min(1f, environmentalManager.getWind().len() / FULL_WIND);
+        audio.fadeTo(AudioManager.Cue.WIND, WIND_VOLUME * (strength + windSwell));
+    }
+
+    // Flying through cloud cover washes out the view; the compass and destination stay on top
+    private void drawCloudFog() {
+        float cover = environmentalManager.getCloudCover();
+        if (cover < MIN_FOG_COVER) {
+            return;
+        }
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(1, 1, 1, cover * MAX_FOG_ALPHA);
+        shapeRenderer.rect(0, 0, 800, 600);
+        shapeRenderer.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    // One rectangle per run of restricted cells in a row, so the zones follow the coastline
+    private void drawNoFlyZones() {
+        LevelLayout layout = simulation.getLayout();
+        if (layout.getZoneCount() == 0) {
+            return;
+        }
+        CollisionMask noFly = layout.getNoFlyMask();
+        float cell = noFly.getCellSize();
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(1, 0, 0, NO_FLY_ALPHA);
+        for (int row = 0; row < noFly.getRows(); row++) {
+            for (int start = noFly.nextSet(row, 0); start < noFly.getColumns(); ) {
+                int end = noFly.nextClear(row, start);
+                shapeRenderer.rect(start * cell, row * cell, (end - start) * cell, cell);
+                start = noFly.nextSet(row, end);
+            }
+        }
+        shapeRenderer.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
     }
 
     private void showDialog(String title, String message) {
@@ -224,7 +527,7 @@ public class GameScreen implements Screen {
                 if ((boolean) object) {
                     player.setPaused(false);
                     if (title.equals("Congratulations!")) {
-                        game.setScreen(new GameScreen(game, batch, mapTexture, zeppelinTexture, uiSkin, assetManager, level + 1));
+                        startLevel(level + 1);
                     } else {
                         restartGame();
                     }
@@ -239,32 +542,41 @@ public class GameScreen implements Screen {
     }
 
     private void checkGameEndConditions() {
-        if (gameTime <= 0 && !player.isAtEndpoint(finalDestination)) {
-            windSound.stop();
-            zeppelinSound.stop();
-            isZeppelinSoundPlaying = false;
-            gameOverSound.play(GAME_OVER_VOLUME);
-            isGameOver = true;
-            showDialog("Game Over", "You are too late!");
+        switch (simulation.getOutcome()) {
+            case TIMED_OUT:
+                endGame(AudioManager.Cue.GAME_OVER, GAME_OVER_VOLUME, "Game Over", "You are too late!");
+                break;
+            case ARRIVED:
+                if (controller == null) {
+                    ghosts.submit(ghostTrack, simulation.getSeed());
+                }
+                endGame(AudioManager.Cue.WIN, WIN_VOLUME, "Congratulations!", "You have reached your destination!");
+                break;
+            case OUT_OF_BOUNDS:
+                endGame(AudioManager.Cue.GAME_OVER, GAME_OVER_VOLUME, "Game Over", "You went far away!");
+                break;
+            case NO_FLY_ZONE:
+                endGame(AudioManager.Cue.GAME_OVER, GAME_OVER_VOLUME, "Game Over", "You flew into a no-fly zone!");
+                break;
+            default:
+                break;
         }
+    }
 
-        if (player.isAtEndpoint(finalDestination)) {
-            windSound.stop();
-            zeppelinSound.stop();
-            isZeppelinSoundPlaying = false;
-            winSound.play(WIN_VOLUME);
-            isGameOver = true;
-            showDialog("Congratulations!", "You have reached Liverpool!");
+    private void endGame(AudioManager.Cue cue, float volume, String title, String message) {
+        RunDatabase runs = game.getRunDatabase();
+        if (runs != null && !autopilotUsed && controller == null) {
+            runs.record(RunRecord.of(simulation, zeppelinPath));
         }
-
-        if (player.isOutOfBounds(0)) {
-            windSound.stop();
-            zeppelinSound.stop();
-            isZeppelinSoundPlaying = false;
-            gameOverSound.play(GAME_OVER_VOLUME);
-            isGameOver = true;
-            showDialog("Game Over", "You went far away!");
+        audio.stop(AudioManager.Cue.WIND);
+        audio.stop(AudioManager.Cue.ENGINE);
+        audio.play(cue, volume);
+        if (controller != null) {
+            restartGame();
+            return;
         }
+        isGameOver = true;
+        showDialog(title, message);
     }
 
     @Override
@@ -280,21 +592,40 @@ public class GameScreen implements Screen {
     public void resume() {}
 
     @Override
-    public void hide() {}
+    public void hide() {
+        saveRecording();
+    }
+
+    private void saveRecording() {
+        if (recording == null || recording.getTickCount() == 0) {
+            return;
+        }
+        File dir = new File(System.getProperty("zeppelin.recordDir"));
+        dir.mkdirs();
+        File file = new File(dir, "level-" + level + "-" + simulation.getSeed() + "-" + System.currentTimeMillis() + ReplayRunner.EXTENSION);
+        try {
+            recording.write(file);
+        } catch (IOException e) {
+            Gdx.app.error("GameScreen", "Could not save input recording to " + file, e);
+        }
+        recording = null;
+    }
 
     @Override
     public void dispose() {
-        batch.dispose();
-        shapeRenderer.dispose();
-        mapTexture.dispose();
-        zeppelinTexture.dispose();
-        backgroundTexture.dispose();
-        cloudTexture.dispose();
-        stage.dispose();
-        uiSkin.dispose();
-        zeppelinSound.dispose();
-        windSound.dispose();
-        gameOverSound.dispose();
-        winSound.dispose();
+        saveRecording();
+        Gdx.app.log("QualityGovernor", quality.summary());
+        profiler.dispose();
+        plannerThread.shutdownNow();
+        levelThread.shutdownNow();
+        windThread.shutdown();
+        ghosts.dispose();
+        audio.stopAll();
+        audioBackend.dispose();
+        resources.dispose(shapeRenderer);
+        resources.dispose(cloudCache);
+        resources.dispose(stage);
+        sprites.release(MAP, zeppelinPath, CLOUD);
+        resources.release(BACKGROUND);
     }
 }
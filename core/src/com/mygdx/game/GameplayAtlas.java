@@ -0,0 +1,85 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * The map, zeppelin and cloud images as regions of one texture, so the batch does not flush to
+ * switch textures between them; only the cached cloud layers, each a texture of its own, add
+ * flushes to a frame of the level. The atlas is packed at build time by the desktop
+ * project's packAtlas task; when it is missing, as when the game is started without running it,
+ * each image is loaded as a texture of its own and wrapped in a region instead.
+ */
+public class GameplayAtlas {
+    static final String ATLAS = "atlas/gameplay.atlas";
+    static final String[] IMAGES = {
+            "images/map1.png", "images/cloud.png", ZeppelinSelection.ZEPPELIN_L19, ZeppelinSelection.ZEPPELIN_L20
+    };
+
+    private final ResourceCache resources;
+    private final TextureAtlas atlas;
+
+    /**
+     * Acquires the atlas, or nothing when it was not packed; textures are acquired region by region.
+     */
+    public GameplayAtlas(ResourceCache resources) {
+        this(resources, isPacked() ? resources.acquire(ATLAS, TextureAtlas.class) : null);
+    }
+
+    // For tests, which load the atlas themselves
+    GameplayAtlas(ResourceCache resources, TextureAtlas atlas) {
+        this.resources = resources;
+        this.atlas = atlas;
+    }
+
+    public static boolean isPacked() {
+        return Gdx.files.internal(ATLAS).exists();
+    }
+
+    // What has to be loaded before a level can be drawn
+    public static AssetDescriptor<?>[] assets() {
+        if (isPacked()) {
+            return new AssetDescriptor<?>[] {new AssetDescriptor<>(ATLAS, TextureAtlas.class)};
+        }
+        AssetDescriptor<?>[] assets = new AssetDescriptor<?>[IMAGES.length];
+        for (int i = 0; i < IMAGES.length; i++) {
+            assets[i] = new AssetDescriptor<>(IMAGES[i], Texture.class);
+        }
+        return assets;
+    }
+
+    /**
+     * The region for one of {@link #IMAGES}, by its path under the assets directory. Each loose
+     * texture found this way is released again by {@link #release}.
+     */
+    public TextureRegion find(String imagePath) {
+        if (atlas == null) {
+            return new TextureRegion(resources.acquire(imagePath, Texture.class));
+        }
+        TextureRegion region = atlas.findRegion(regionName(imagePath));
+        if (region == null) {
+            throw new IllegalArgumentException(imagePath + " is not in " + ATLAS);
+        }
+        return region;
+    }
+
+    public void release(String... imagePaths) {
+        if (atlas != null) {
+            resources.release(ATLAS);
+            return;
+        }
+        for (String imagePath : imagePaths) {
+            resources.release(imagePath);
+        }
+    }
+
+    // The packer names a region after its file, without directory or extension
+    static String regionName(String imagePath) {
+        int start = imagePath.lastIndexOf('/') + 1;
+        int end = imagePath.lastIndexOf('.');
+        return imagePath.substring(start, end > start ? end : imagePath.length());
+    }
+}
@@ -0,0 +1,50 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Plays cues through libGDX sounds acquired from the resource cache, and releases them on dispose.
+ */
+public class GdxAudioBackend implements AudioBackend, Disposable {
+    private static final AudioManager.Cue[] CUES = AudioManager.Cue.values();
+
+    private final ResourceCache resources;
+    private final Sound[] sounds = new Sound[CUES.length];
+
+    public GdxAudioBackend(ResourceCache resources) {
+        this.resources = resources;
+        for (AudioManager.Cue cue : CUES) {
+            sounds[cue.ordinal()] = resources.acquire(cue.path, Sound.class);
+        }
+    }
+
+    @Override
+    public long play(AudioManager.Cue cue, float volume, boolean loop) {
+        Sound sound = sounds[cue.ordinal()];
+        return loop ? sound.loop(volume) : sound.play(volume);
+    }
+
+    @Override
+    public void setVolume(AudioManager.Cue cue, long id, float volume) {
+        sounds[cue.ordinal()].setVolume(id, volume);
+    }
+
+    @Override
+    public void stop(AudioManager.Cue cue, long id) {
+        sounds[cue.ordinal()].stop(id);
+    }
+
+    // The mixer lets the clip end by itself, so a short duration estimate never cuts it
+    @Override
+    public void finished(AudioManager.Cue cue, long id) {
+    }
+
+    @Override
+    public void dispose() {
+        for (AudioManager.Cue cue : CUES) {
+            sounds[cue.ordinal()].stop();
+            resources.release(cue.path);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.mygdx.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replays a file written by {@link GhostTrack} from a copy of its bytes, one step at a time. Only the
+ * current block is decoded and nothing is allocated after {@link #open}, so the ghost costs the same
+ * every frame however long the run was.
+ */
+public class GhostReader {
+    private final ByteBuffer buffer;
+    private final int level;
+    private final int tickRate;
+    private final int scale;
+    private final int tickCount;
+    private final int blockTicks;
+    private final int blockCount;
+    private int tick = -1;
+    private int position;
+    private int x;
+    private int y;
+    private int previousX;
+    private int previousY;
+
+    private GhostReader(ByteBuffer buffer, File file) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < GhostTrack.HEADER_SIZE || buffer.getInt(0) != GhostTrack.MAGIC) {
+            throw new IOException("Not a ghost track: " + file);
+        }
+        int version = buffer.get(4);
+        if (version != GhostTrack.VERSION) {
+            throw new IOException("Unsupported ghost track version " + version + ": " + file);
+        }
+        level = buffer.getInt(5);
+        tickRate = buffer.getInt(9);
+        scale = buffer.getInt(13);
+        tickCount = buffer.getInt(17);
+        blockTicks = buffer.getInt(21);
+        blockCount = buffer.getInt(25);
+        if (scale <= 0 || tickCount <= 0 || blockTicks <= 0 || blockCount != (tickCount + blockTicks - 1) / blockTicks
+                || GhostTrack.HEADER_SIZE + blockCount * 4L > buffer.limit()) {
+            throw new IOException("Corrupt ghost track: " + file);
+        }
+        for (int block = 0; block < blockCount; block++) {
+            int offset = blockOffset(block);
+            if (offset < GhostTrack.HEADER_SIZE || offset + 8 > buffer.limit()) {
+                throw new IOException("Corrupt ghost track: " + file);
+            }
+        }
+    }
+
+    /**
+     * Reads the whole file, a few kilobytes for a full run, and holds nothing open afterwards, so
+     * a better run can replace the file while this one is still racing.
+     */
+    public static GhostReader open(File file) throws IOException {
+        return new GhostReader(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), file);
+    }
+
+    // Reads just the step count to decide whether a new run is better
+    static int readTickCount(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(GhostTrack.HEADER_SIZE);
+            int read = 0;
+            while (header.hasRemaining() && read >= 0) {
+                read = channel.read(header);
+            }
+            if (header.hasRemaining() || header.getInt(0) != GhostTrack.MAGIC) {
+                throw new IOException("Not a ghost track: " + file);
+            }
+            return header.getInt(17);
+        }
+    }
+
+    /**
+     * Moves to the next step; past the end the ghost stays where the run finished.
+     */
+    public void advance() {
+        previousX = x;
+        previousY = y;
+        if (tick + 1 >= tickCount) {
+            return;
+        }
+        tick++;
+        if (tick % blockTicks == 0) {
+            position = blockOffset(tick / blockTicks);
+            x = buffer.getInt(position);
+            y = buffer.getInt(position + 4);
+            position += 8;
+            if (tick == 0) {
+                previousX = x;
+                previousY = y;
+            }
+        } else {
+            x += unzigzag(readVarInt());
+            y += unzigzag(readVarInt());
+        }
+    }
+
+    /**
+     * Jumps to the given step, decoding only from the start of its block.
+     */
+    public void seek(int target) {
+        int clamped = Math.max(0, Math.min(tickCount - 1, target));
+        tick = clamped / blockTicks * blockTicks - 1;
+        while (tick < clamped) {
+            advance();
+        }
+        previousX = x;
+        previousY = y;
+    }
+
+    public void rewind() {
+        tick = -1;
+    }
+
+    public boolean hasStarted() {
+        return tick >= 0;
+    }
+
+    public boolean isFinished() {
+        return tick == tickCount - 1;
+    }
+
+    public float getInterpolatedX(float alpha) {
+        return (previousX + (x - previousX) * alpha) / scale;
+    }
+
+    public float getInterpolatedY(float alpha) {
+        return (previousY + (y - previousY) * alpha) / scale;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    private int blockOffset(int block) {
+        return buffer.getInt(GhostTrack.HEADER_SIZE + block * 4);
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = buffer.get(position++) & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed ghost track delta");
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
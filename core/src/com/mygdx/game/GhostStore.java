@@ -0,0 +1,101 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.Gdx;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the best run of each map as one ghost file, named after its level and seed, in a directory
+ * (-Dzeppelin.ghostDir, default "ghosts"). Finished runs are compared and written on a background
+ * thread so the level-end dialog never waits for the disk.
+ */
+public class GhostStore {
+    private static final String EXTENSION = ".ghost";
+    private static final long FLUSH_TIMEOUT_SECONDS = 2;
+
+    private final File directory;
+    private final ExecutorService writer;
+
+    public GhostStore(File directory) {
+        this.directory = directory;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ghost-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static GhostStore fromSystemProperties() {
+        return new GhostStore(new File(System.getProperty("zeppelin.ghostDir", "ghosts")));
+    }
+
+    /**
+     * The best run on the level's map from this seed, or null when there is none recorded at this
+     * tick rate.
+     */
+    public GhostReader load(int level, long seed, int tickRate) {
+        File file = fileFor(level, seed);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            GhostReader ghost = GhostReader.open(file);
+            return ghost.getTickRate() == tickRate ? ghost : null;
+        } catch (IOException e) {
+            Gdx.app.error("GhostStore", "Could not read ghost " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Copies the finished run and, off the calling thread, replaces the map's ghost if the run
+     * took fewer steps.
+     */
+    public void submit(GhostTrack track, long seed) {
+        if (track.getTickCount() == 0) {
+            return;
+        }
+        GhostTrack run = track.snapshot();
+        writer.execute(() -> saveIfBest(run, seed));
+    }
+
+    private void saveIfBest(GhostTrack run, long seed) {
+        File file = fileFor(run.getLevel(), seed);
+        File temporary = new File(directory, file.getName() + ".tmp");
+        try {
+            if (file.isFile() && GhostReader.readTickCount(file) <= run.getTickCount()) {
+                return;
+            }
+            directory.mkdirs();
+            run.write(temporary);
+            // The ghost being raced is a copy in memory; the new run shows from the next attempt
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Gdx.app.error("GhostStore", "Could not save ghost " + file, e);
+            temporary.delete();
+        }
+    }
+
+    // Runs on different maps of the same level fly different routes, so each map has its own ghost
+    File fileFor(int level, long seed) {
+        return new File(directory, "level-" + level + "-" + Long.toHexString(seed) + EXTENSION);
+    }
+
+    /**
+     * Lets a ghost submitted just before quitting finish writing.
+     */
+    public void dispose() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
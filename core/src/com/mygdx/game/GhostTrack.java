@@ -0,0 +1,120 @@
+package com.mygdx.game;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The zeppelin's position on every step of one run, for replaying as a ghost. Positions are kept
+ * quantized to {@link #SCALE} units per pixel. On disk the steps are cut into blocks of
+ * {@link #BLOCK_TICKS}; each block starts with an absolute position followed by zigzag varint
+ * deltas, and a block index in the header lets {@link GhostReader} seek without decoding
+ * everything before.
+ */
+public class GhostTrack {
+    static final int MAGIC = 0x5A47484F; // "ZGHO"
+    static final int VERSION = 1;
+    static final int SCALE = 16;
+    static final int BLOCK_TICKS = 128;
+    // magic, version, level, tick rate, scale, tick count, block ticks, block count
+    static final int HEADER_SIZE = 4 + 1 + 4 * 6;
+
+    private final int level;
+    private final int tickRate;
+    private int[] xs;
+    private int[] ys;
+    private int tickCount;
+
+    public GhostTrack(int level, int tickRate) {
+        this(level, tickRate, new int[(int) Math.ceil(tickRate * Simulation.MAX_GAME_TIME) + 2],
+                new int[(int) Math.ceil(tickRate * Simulation.MAX_GAME_TIME) + 2], 0);
+    }
+
+    private GhostTrack(int level, int tickRate, int[] xs, int[] ys, int tickCount) {
+        this.level = level;
+        this.tickRate = tickRate;
+        this.xs = xs;
+        this.ys = ys;
+        this.tickCount = tickCount;
+    }
+
+    public void record(float x, float y) {
+        if (tickCount == xs.length) {
+            xs = Arrays.copyOf(xs, xs.length * 2);
+            ys = Arrays.copyOf(ys, ys.length * 2);
+        }
+        xs[tickCount] = Math.round(x * SCALE);
+        ys[tickCount] = Math.round(y * SCALE);
+        tickCount++;
+    }
+
+    public void clear() {
+        tickCount = 0;
+    }
+
+    // A copy that can be written on another thread while this one keeps recording
+    public GhostTrack snapshot() {
+        return new GhostTrack(level, tickRate, Arrays.copyOf(xs, tickCount), Arrays.copyOf(ys, tickCount), tickCount);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public void write(File file) throws IOException {
+        int blockCount = (tickCount + BLOCK_TICKS - 1) / BLOCK_TICKS;
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream(tickCount * 2 + blockCount * 8);
+        DataOutputStream blockOut = new DataOutputStream(blocks);
+        int[] offsets = new int[blockCount];
+        int dataStart = HEADER_SIZE + blockCount * 4;
+        for (int block = 0; block < blockCount; block++) {
+            offsets[block] = dataStart + blockOut.size();
+            int first = block * BLOCK_TICKS;
+            int last = Math.min(tickCount, first + BLOCK_TICKS);
+            blockOut.writeInt(xs[first]);
+            blockOut.writeInt(ys[first]);
+            for (int tick = first + 1; tick < last; tick++) {
+                writeVarInt(blockOut, zigzag(xs[tick] - xs[tick - 1]));
+                writeVarInt(blockOut, zigzag(ys[tick] - ys[tick - 1]));
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(level);
+            out.writeInt(tickRate);
+            out.writeInt(SCALE);
+            out.writeInt(tickCount);
+            out.writeInt(BLOCK_TICKS);
+            out.writeInt(blockCount);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            blocks.writeTo(out);
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mygdx.game;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One daemon thread that runs tasks handed to it through a single slot instead of a queue, so
+ * handing over a task that is kept and reused allocates nothing. A task offered while another is
+ * still waiting to start is rejected; callers keep at most one outstanding.
+ */
+public class HandoffThread implements Executor {
+    private final AtomicReference<Runnable> slot = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    public HandoffThread(String name) {
+        thread = new Thread(this::loop, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (closed || !slot.compareAndSet(null, task)) {
+            throw new RejectedExecutionException("A task is already waiting on " + thread.getName());
+        }
+        LockSupport.unpark(thread);
+    }
+
+    public void shutdown() {
+        closed = true;
+        LockSupport.unpark(thread);
+    }
+
+    private void loop() {
+        while (!closed) {
+            Runnable task = slot.getAndSet(null);
+            if (task == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // Reported like an uncaught exception, but the thread stays to run the next task
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Text shown in the in-game HUD. Each line is rebuilt in place only when its displayed value
+ * changes, so steady-state frames neither format nor allocate.
+ */
+public class HudFormatter {
+    private final StringBuilder speedText = new StringBuilder(24);
+    private final StringBuilder windText = new StringBuilder(32);
+    private final StringBuilder timeText = new StringBuilder(24);
+    private final StringBuilder cloudsText = new StringBuilder(24);
+    private long shownSpeed = Long.MIN_VALUE;
+    private long shownWindX = Long.MIN_VALUE;
+    private long shownWindY = Long.MIN_VALUE;
+    private long shownTime = Long.MIN_VALUE;
+    private long shownClouds = Long.MIN_VALUE;
+
+    public boolean updateSpeed(float speed) {
+        long hundredths = toHundredths(speed);
+        if (hundredths == shownSpeed) {
+            return false;
+        }
+        shownSpeed = hundredths;
+        speedText.setLength(0);
+        appendFixed(speedText.append("Speed: "), hundredths);
+        return true;
+    }
+
+    public boolean updateWind(float windX, float windY) {
+        long x = toHundredths(windX);
+        long y = toHundredths(windY);
+        if (x == shownWindX && y == shownWindY) {
+            return false;
+        }
+        shownWindX = x;
+        shownWindY = y;
+        windText.setLength(0);
+        appendFixed(windText.append("Wind: "), x);
+        appendFixed(windText.append(", "), y);
+        return true;
+    }
+
+    public boolean updateTime(float remaining) {
+        long hundredths = toHundredths(remaining);
+        if (hundredths == shownTime) {
+            return false;
+        }
+        shownTime = hundredths;
+        timeText.setLength(0);
+        appendFixed(timeText.append("Time: "), hundredths).append(" s");
+        return true;
+    }
+
+    public boolean updateClouds(int count) {
+        if (count == shownClouds) {
+            return false;
+        }
+        shownClouds = count;
+        cloudsText.setLength(0);
+        cloudsText.append("Clouds: ").append(count);
+        return true;
+    }
+
+    public StringBuilder getSpeedText() {
+        return speedText;
+    }
+
+    public StringBuilder getWindText() {
+        return windText;
+    }
+
+    public StringBuilder getTimeText() {
+        return timeText;
+    }
+
+    public StringBuilder getCloudsText() {
+        return cloudsText;
+    }
+
+    private static long toHundredths(float value) {
+        return Math.round(value * 100.0);
+    }
+
+    // Two decimals like "%.2f", without going through Formatter
+    private static StringBuilder appendFixed(StringBuilder text, long hundredths) {
+        if (hundredths < 0) {
+            text.append('-');
+            hundredths = -hundredths;
+        }
+        text.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction);
+    }
+}
@@ -0,0 +1,166 @@
+package com.mygdx.game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The {@link PlayerInput} flags of every simulation step in one level, together with what is needed
+ * to rebuild the same simulation. On disk the inputs are run-length encoded, since held keys
+ * rarely change from one step to the next.
+ */
+public class InputRecording {
+    private static final int MAGIC = 0x5A524543; // "ZREC"
+    private static final int VERSION = 2;
+
+    private final int level;
+    private final long seed;
+    private final int tickRate;
+    private final int windColumns;
+    private final float fieldWidth;
+    private final float fieldHeight;
+    private byte[] inputs;
+    private int tickCount;
+
+    public InputRecording(int level, long seed, int tickRate, int windColumns, float fieldWidth, float fieldHeight) {
+        this(level, seed, tickRate, windColumns, fieldWidth, fieldHeight, new byte[1024], 0);
+    }
+
+    private InputRecording(int level, long seed, int tickRate, int windColumns, float fieldWidth, float fieldHeight,
+            byte[] inputs, int tickCount) {
+        this.level = level;
+        this.seed = seed;
+        this.tickRate = tickRate;
+        this.windColumns = windColumns;
+        this.fieldWidth = fieldWidth;
+        this.fieldHeight = fieldHeight;
+        this.inputs = inputs;
+        this.tickCount = tickCount;
+    }
+
+    public void record(int input) {
+        if (tickCount == inputs.length) {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+        }
+        inputs[tickCount++] = (byte) input;
+    }
+
+    public int getInput(int tick) {
+        return inputs[tick] & 0xFF;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getWindColumns() {
+        return windColumns;
+    }
+
+    public float getFieldWidth() {
+        return fieldWidth;
+    }
+
+    public float getFieldHeight() {
+        return fieldHeight;
+    }
+
+    // The wind grid is rebuilt at the recorded resolution, whatever -Dzeppelin.windColumns says now
+    public Simulation createSimulation() {
+        return new Simulation(LevelLayout.generate(level, seed), windColumns, fieldWidth, fieldHeight);
+    }
+
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(level);
+            out.writeLong(seed);
+            out.writeInt(tickRate);
+            out.writeInt(windColumns);
+            out.writeFloat(fieldWidth);
+            out.writeFloat(fieldHeight);
+            out.writeInt(tickCount);
+            int tick = 0;
+            while (tick < tickCount) {
+                byte input = inputs[tick];
+                int run = 1;
+                while (tick + run < tickCount && inputs[tick + run] == input) {
+                    run++;
+                }
+                out.writeByte(input);
+                writeVarInt(out, run);
+                tick += run;
+            }
+        }
+    }
+
+    public static InputRecording read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an input recording: " + file);
+            }
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported input recording version " + version + ": " + file);
+            }
+            int level = in.readInt();
+            long seed = in.readLong();
+            int tickRate = in.readInt();
+            int windColumns = in.readInt();
+            float fieldWidth = in.readFloat();
+            float fieldHeight = in.readFloat();
+            int tickCount = in.readInt();
+            byte[] inputs = new byte[Math.max(1, tickCount)];
+            int tick = 0;
+            while (tick < tickCount) {
+                byte input = in.readByte();
+                int run = readVarInt(in);
+                if (run <= 0 || tick + run > tickCount) {
+                    throw new IOException("Corrupt input recording: " + file);
+                }
+                Arrays.fill(inputs, tick, tick + run, input);
+                tick += run;
+            }
+            return new InputRecording(level, seed, tickRate, windColumns, fieldWidth, fieldHeight, inputs, tickCount);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed run length");
+    }
+}
@@ -0,0 +1,86 @@
+package com.mygdx.game;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Generated levels kept by level and seed in a bounded, least recently used cache. {@link #prefetch} starts
+ * generating a level on the executor while another one is being played, so {@link #get} usually
+ * finds it finished; only a level nobody asked for in advance is generated on the calling thread.
+ */
+public class LevelCache {
+    public static final int DEFAULT_CAPACITY = 8;
+
+    private final Executor executor;
+    private final Map<Key, CompletableFuture<LevelLayout>> layouts;
+    private int hits;
+    private int misses;
+
+    public LevelCache(Executor executor, int capacity) {
+        this.executor = executor;
+        this.layouts = new LinkedHashMap<Key, CompletableFuture<LevelLayout>>(capacity + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<LevelLayout>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized void prefetch(int level, long seed) {
+        Key key = new Key(level, seed);
+        if (layouts.get(key) == null) {
+            layouts.put(key, CompletableFuture.supplyAsync(() -> LevelLayout.generate(level, seed), executor));
+        }
+    }
+
+    /**
+     * The level for this seed, waiting for a prefetch still in flight rather than starting over.
+     */
+    public LevelLayout get(int level, long seed) {
+        CompletableFuture<LevelLayout> layout;
+        synchronized (this) {
+            Key key = new Key(level, seed);
+            layout = layouts.get(key);
+            if (layout != null) {
+                hits++;
+            } else {
+                misses++;
+                layout = CompletableFuture.completedFuture(LevelLayout.generate(level, seed));
+                layouts.put(key, layout);
+            }
+        }
+        return layout.join();
+    }
+
+    // Lookups that had to generate on the calling thread
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    // The level is part of the key since the same seed gives another layout on another level
+    private static final class Key {
+        final int level;
+        final long seed;
+
+        Key(int level, long seed) {
+            this.level = level;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).level == level && ((Key) other).seed == seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(seed) + level;
+        }
+    }
+}
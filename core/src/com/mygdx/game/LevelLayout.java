@@ -0,0 +1,330 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Everything that makes one level different from another, generated from the level number and a
+ * seed: where the flight starts and ends, where clouds cluster, the prevailing wind and no-fly
+ * zones. Zones are restricted airspace over land, so their rectangles are cut along the map's
+ * coastlines into a {@link CollisionMask}. Generation retries until a zeppelin can fly around the
+ * zones to the destination, which makes it worth doing off the render thread; see
+ * {@link LevelCache}. Instances are immutable.
+ */
+public final class LevelLayout {
+    private static final float CLOUDS_PER_LEVEL = 75;
+    private static final float MIN_START_X = 560;
+    private static final float MAX_START_X = 740;
+    private static final float MIN_START_Y = 100;
+    private static final float MAX_START_Y = 500;
+    private static final float MIN_DESTINATION_X = 40;
+    private static final float MAX_DESTINATION_X = 140;
+    private static final float MIN_DESTINATION_Y = 60;
+    private static final float MAX_DESTINATION_Y = 540;
+    // Climbing is capped at the forward speed; keep the straight line well below that
+    private static final float MAX_ROUTE_SLOPE = 0.6f;
+    private static final int MAX_ZONES = 4;
+    private static final float MIN_ZONE_SIZE = 40;
+    private static final float MAX_ZONE_WIDTH = 140;
+    private static final float MAX_ZONE_HEIGHT = 120;
+    private static final float ZONE_CLEARANCE = 40;
+    private static final float MAX_PREVAILING_WIND = 0.2f;
+    private static final float PREVAILING_WIND_PER_LEVEL = 0.02f;
+    private static final float MIN_VARIABILITY = 0.6f;
+    private static final float MAX_VARIABILITY = 1.4f;
+    private static final int MIN_CLUSTERS = 2;
+    private static final int MAX_CLUSTERS = 5;
+    private static final float BACKGROUND_CLOUDS = 0.3f;
+    private static final float MIN_CLUSTER_SPREAD = 0.05f;
+    private static final float MAX_CLUSTER_SPREAD = 0.2f;
+    private static final int MAX_ATTEMPTS = 32;
+    private static final float FEASIBILITY_CELL = 10;
+    static final float MASK_CELL = 2;
+    // Baked from images/map1.png by the core bakeTerrain task
+    private static final String TERRAIN = "/terrain/map1.mask";
+    private static final CollisionMask LAND = loadLand();
+
+    private final int level;
+    private final long seed;
+    private final float startX;
+    private final float startY;
+    private final float destinationX;
+    private final float destinationY;
+    // Cloud anchors in [0, 1) of the field, so one layout fits any window size
+    private final float[] cloudX;
+    private final float[] cloudY;
+    private final float windX;
+    private final float windY;
+    private final float windVariability;
+    private final float[] zoneX;
+    private final float[] zoneY;
+    private final float[] zoneWidth;
+    private final float[] zoneHeight;
+    private final CollisionMask noFly;
+
+    private LevelLayout(int level, long seed, float startX, float startY, float destinationX, float destinationY,
+                        float[] cloudX, float[] cloudY, float windX, float windY, float windVariability,
+                        float[] zoneX, float[] zoneY, float[] zoneWidth, float[] zoneHeight, CollisionMask noFly) {
+        this.level = level;
+        this.seed = seed;
+        this.startX = startX;
+        this.startY = startY;
+        this.destinationX = destinationX;
+        this.destinationY = destinationY;
+        this.cloudX = cloudX;
+        this.cloudY = cloudY;
+        this.windX = windX;
+        this.windY = windY;
+        this.windVariability = windVariability;
+        this.zoneX = zoneX;
+        this.zoneY = zoneY;
+        this.zoneWidth = zoneWidth;
+        this.zoneHeight = zoneHeight;
+        this.noFly = noFly;
+    }
+
+    /**
+     * The seed of the level's standard map, the one ghosts and leaderboards are kept for unless
+     * another is asked for.
+     */
+    public static long standardSeed(int level) {
+        return level;
+    }
+
+    public static LevelLayout generate(int level, long seed) {
+        // A stream of its own, so the weather drawn from the same seed is not shifted by the layout
+        SplittableRandom random = new SplittableRandom(seed).split();
+
+        float startX;
+        float startY;
+        float destinationX;
+        float destinationY;
+        do {
+            startX = between(random, MIN_START_X, MAX_START_X);
+            startY = between(random, MIN_START_Y, MAX_START_Y);
+            destinationX = between(random, MIN_DESTINATION_X, MAX_DESTINATION_X);
+            destinationY = between(random, MIN_DESTINATION_Y, MAX_DESTINATION_Y);
+        } while (Math.abs(destinationY - startY) > (startX - destinationX) * MAX_ROUTE_SLOPE);
+
+        int zones = Math.min(MAX_ZONES, (level - 1) / 2);
+        float[] zoneX = new float[zones];
+        float[] zoneY = new float[zones];
+        float[] zoneWidth = new float[zones];
+        float[] zoneHeight = new float[zones];
+        CollisionMask noFly = emptyMask();
+        boolean feasible = zones == 0;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !feasible; attempt++) {
+            noFly = emptyMask();
+            for (int i = 0; i < zones; i++) {
+                do {
+                    zoneWidth[i] = between(random, MIN_ZONE_SIZE, MAX_ZONE_WIDTH);
+                    zoneHeight[i] = between(random, MIN_ZONE_SIZE, MAX_ZONE_HEIGHT);
+                    zoneX[i] = between(random, destinationX, startX - zoneWidth[i]);
+                    zoneY[i] = between(random, 0, Simulation.WORLD_HEIGHT - zoneHeight[i]);
+                } while (nearZone(zoneX[i], zoneY[i], zoneWidth[i], zoneHeight[i], startX, startY)
+                        || nearZone(zoneX[i], zoneY[i], zoneWidth[i], zoneHeight[i], destinationX, destinationY));
+                noFly.fill(zoneX[i], zoneY[i], zoneWidth[i], zoneHeight[i]);
+            }
+            noFly.retain(LAND);
+            feasible = isFlyable(startX, startY, destinationX, destinationY, noFly);
+        }
+        if (!feasible) {
+            // Give up on zones rather than hand out a level nobody can finish
+            zoneX = zoneY = zoneWidth = zoneHeight = new float[0];
+            noFly = emptyMask();
+        }
+
+        int clouds = (int) (CLOUDS_PER_LEVEL * level);
+        int clusters = MIN_CLUSTERS + random.nextInt(MAX_CLUSTERS - MIN_CLUSTERS + 1);
+        float[] clusterX = new float[clusters];
+        float[] clusterY = new float[clusters];
+        float[] clusterSpread = new float[clusters];
+        for (int c = 0; c < clusters; c++) {
+            clusterX[c] = (float) random.nextDouble();
+            clusterY[c] = (float) random.nextDouble();
+            clusterSpread[c] = between(random, MIN_CLUSTER_SPREAD, MAX_CLUSTER_SPREAD);
+        }
+        float[] cloudX = new float[clouds];
+        float[] cloudY = new float[clouds];
+        for (int i = 0; i < clouds; i++) {
+            if (random.nextDouble() < BACKGROUND_CLOUDS) {
+                cloudX[i] = (float) random.nextDouble();
+                cloudY[i] = (float) random.nextDouble();
+            } else {
+                int c = random.nextInt(clusters);
+                cloudX[i] = wrap(clusterX[c] + gaussian(random) * clusterSpread[c]);
+                cloudY[i] = wrap(clusterY[c] + gaussian(random) * clusterSpread[c]);
+            }
+        }
+
+        float prevailing = Math.min(MAX_PREVAILING_WIND, PREVAILING_WIND_PER_LEVEL * (level - 1)) * (float) random.nextDouble();
+        double direction = random.nextDouble() * Math.PI * 2;
+        float variability = between(random, MIN_VARIABILITY, MAX_VARIABILITY);
+
+        return new LevelLayout(level, seed, startX, startY, destinationX, destinationY, cloudX, cloudY,
+                prevailing * (float) Math.cos(direction), prevailing * (float) Math.sin(direction), variability,
+                zoneX, zoneY, zoneWidth, zoneHeight, noFly);
+    }
+
+    /**
+     * Whether a zeppelin hitbox with its lower left corner at x, y touches any no-fly zone.
+     */
+    public boolean isInNoFlyZone(float x, float y, float width, float height) {
+        return noFly.overlaps(x, y, width, height);
+    }
+
+    // The cells of the zones that lie over land
+    public CollisionMask getNoFlyMask() {
+        return noFly;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public float getStartX() {
+        return startX;
+    }
+
+    public float getStartY() {
+        return startY;
+    }
+
+    public float getDestinationX() {
+        return destinationX;
+    }
+
+    public float getDestinationY() {
+        return destinationY;
+    }
+
+    public int getCloudCount() {
+        return cloudX.length;
+    }
+
+    float[] getCloudAnchorsX() {
+        return cloudX;
+    }
+
+    float[] getCloudAnchorsY() {
+        return cloudY;
+    }
+
+    // The wind the timeline's targets are centred on
+    public float getPrevailingWindX() {
+        return windX;
+    }
+
+    public float getPrevailingWindY() {
+        return windY;
+    }
+
+    // Scales how far wind changes and gusts stray from the prevailing wind
+    public float getWindVariability() {
+        return windVariability;
+    }
+
+    public int getZoneCount() {
+        return zoneX.length;
+    }
+
+    public float getZoneX(int zone) {
+        return zoneX[zone];
+    }
+
+    public float getZoneY(int zone) {
+        return zoneY[zone];
+    }
+
+    public float getZoneWidth(int zone) {
+        return zoneWidth[zone];
+    }
+
+    public float getZoneHeight(int zone) {
+        return zoneHeight[zone];
+    }
+
+    // The zeppelin only flies left and climbs or sinks at most one cell per column, so one sweep
+    // over the columns finds every reachable cell
+    private static boolean isFlyable(float startX, float startY, float destinationX, float destinationY, CollisionMask noFly) {
+        int rows = (int) (Simulation.WORLD_HEIGHT / FEASIBILITY_CELL);
+        int startColumn = (int) (startX / FEASIBILITY_CELL);
+        int destinationColumn = (int) (destinationX / FEASIBILITY_CELL);
+        int destinationRow = (int) (destinationY / FEASIBILITY_CELL);
+        boolean[] reachable = new boolean[rows];
+        boolean[] next = new boolean[rows];
+        reachable[Math.min(rows - 1, (int) (startY / FEASIBILITY_CELL))] = true;
+        for (int column = startColumn - 1; column >= destinationColumn; column--) {
+            boolean any = false;
+            for (int row = 0; row < rows; row++) {
+                boolean from = reachable[row] || (row > 0 && reachable[row - 1]) || (row < rows - 1 && reachable[row + 1]);
+                next[row] = from && !noFly.overlaps(column * FEASIBILITY_CELL, row * FEASIBILITY_CELL,
+                        EnvironmentalManager.ZEPPELIN_WIDTH, EnvironmentalManager.ZEPPELIN_HEIGHT);
+                any |= next[row];
+            }
+            if (!any) {
+                return false;
+            }
+            boolean[] swap = reachable;
+            reachable = next;
+            next = swap;
+        }
+        for (int row = Math.max(0, destinationRow - 1); row <= Math.min(rows - 1, destinationRow + 1); row++) {
+            if (reachable[row]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Land cells of the map, shared by every level
+    static CollisionMask getLand() {
+        return LAND;
+    }
+
+    private static CollisionMask emptyMask() {
+        return new CollisionMask(LAND.getColumns(), LAND.getRows(), LAND.getCellSize());
+    }
+
+    private static CollisionMask loadLand() {
+        try (InputStream in = LevelLayout.class.getResourceAsStream(TERRAIN)) {
+            if (in != null) {
+                return CollisionMask.read(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + TERRAIN, e);
+        }
+        // Without the baked terrain every zone keeps its whole rectangle
+        CollisionMask land = new CollisionMask((int) Math.ceil(Simulation.WORLD_WIDTH / MASK_CELL),
+                (int) Math.ceil(Simulation.WORLD_HEIGHT / MASK_CELL), MASK_CELL);
+        land.fill(0, 0, Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+        return land;
+    }
+
+    private static boolean nearZone(float zoneX, float zoneY, float zoneWidth, float zoneHeight, float x, float y) {
+        return x > zoneX - EnvironmentalManager.ZEPPELIN_WIDTH - ZONE_CLEARANCE && x < zoneX + zoneWidth + ZONE_CLEARANCE
+                && y > zoneY - EnvironmentalManager.ZEPPELIN_HEIGHT - ZONE_CLEARANCE && y < zoneY + zoneHeight + ZONE_CLEARANCE;
+    }
+
+    private static float between(SplittableRandom random, float min, float max) {
+        return min + (float) random.nextDouble() * Math.max(0, max - min);
+    }
+
+    private static float wrap(float value) {
+        float wrapped = value - (float) Math.floor(value);
+        // A tiny negative value rounds up to exactly one
+        return wrapped < 1 ? wrapped : 0;
+    }
+
+    private static float gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return (float) (Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v));
+    }
+}
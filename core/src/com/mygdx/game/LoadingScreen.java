@@ -0,0 +1,98 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+
+/**
+ * Shows a progress bar until the given assets are loaded, then hands over to the next screen.
+ * Loading itself is driven by {@link MyGdxGame#render()}, which gives this screen a larger budget.
+ */
+public class LoadingScreen implements Screen {
+    private static final float BAR_WIDTH = 400;
+    private static final float BAR_HEIGHT = 20;
+
+    private final ResourceCache resources;
+    private final AssetDescriptor<?>[] requiredAssets;
+    private final Runnable onReady;
+    private final OrthographicCamera camera;
+    private final ShapeRenderer shapeRenderer;
+    private boolean ready;
+    private boolean disposed;
+
+    public LoadingScreen(ResourceCache resources, AssetDescriptor<?>[] requiredAssets, Runnable onReady) {
+        this.resources = resources;
+        this.requiredAssets = requiredAssets;
+        this.onReady = onReady;
+        this.camera = new OrthographicCamera();
+        this.shapeRenderer = resources.track(new ShapeRenderer(), "loading screen shape renderer");
+    }
+
+    private float requiredProgress() {
+        int loaded = 0;
+        for (AssetDescriptor<?> asset : requiredAssets) {
+            if (resources.isLoaded(asset)) {
+                loaded++;
+            }
+        }
+        return requiredAssets.length == 0 ? 1 : (float) loaded / requiredAssets.length;
+    }
+
+    @Override
+    public void show() {
+        // Nothing to click while waiting, and the previous screen must not start anything else
+        Gdx.input.setInputProcessor(null);
+    }
+
+    @Override
+    public void render(float delta) {
+        if (!ready && resources.isLoaded(requiredAssets)) {
+            ready = true;
+            onReady.run();
+            return;
+        }
+
+        Gdx.gl.glClearColor(1, 1, 1, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        float x = (camera.viewportWidth - BAR_WIDTH) / 2;
+        float y = (camera.viewportHeight - BAR_HEIGHT) / 2;
+        shapeRenderer.setProjectionMatrix(camera.combined);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(Color.LIGHT_GRAY);
+        shapeRenderer.rect(x, y, BAR_WIDTH, BAR_HEIGHT);
+        shapeRenderer.setColor(Color.RED);
+        shapeRenderer.rect(x, y, BAR_WIDTH * requiredProgress(), BAR_HEIGHT);
+        shapeRenderer.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        camera.setToOrtho(false, width, height);
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void hide() {
+        dispose();
+    }
+
+    @Override
+    public void dispose() {
+        if (!disposed) {
+            disposed = true;
+            resources.dispose(shapeRenderer);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.mygdx.game;
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Texture;
@@ -13,57 +15,163 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 public class MyGdxGame extends Game {
+	// Milliseconds per frame spent loading while a loading screen is up, and while playing
+	private static final int LOADING_BUDGET_MILLIS = 16;
+	private static final int BACKGROUND_BUDGET_MILLIS = 2;
+
+	// Everything the selection screen and the skin need; queued first so it can appear early
+	static final AssetDescriptor<?>[] SELECTION_ASSETS = {
+			new AssetDescriptor<>("fonts/default.fnt", BitmapFont.class),
+			new AssetDescriptor<>("fonts/larger-font.fnt", BitmapFont.class),
+			new AssetDescriptor<>("ui/uiskin.atlas", TextureAtlas.class),
+			new AssetDescriptor<>("images/default-round.png", Texture.class),
+			new AssetDescriptor<>("images/default-round-down.png", Texture.class),
+			new AssetDescriptor<>("images/background.png", Texture.class),
+			new AssetDescriptor<>("images/Zepplin L19.png", Texture.class),
+			new AssetDescriptor<>("images/Zepplin L20.png", Texture.class),
+			new AssetDescriptor<>("images/history-background.png", Texture.class),
+			new AssetDescriptor<>("images/info-background.png", Texture.class),
+	};
+
+	// Only needed once a level starts; streamed in while the player is choosing a zeppelin, along
+	// with the sprites from GameplayAtlas
+	static final AssetDescriptor<?>[] GAMEPLAY_SOUNDS = {
+			new AssetDescriptor<>("sounds/zeppelinSound.mp3", Sound.class),
+			new AssetDescriptor<>("sounds/WindSound.mp3", Sound.class),
+			new AssetDescriptor<>("sounds/gameOverSound.mp3", Sound.class),
+			new AssetDescriptor<>("sounds/winSound.mp3", Sound.class),
+	};
+
+	// Assets the skin holds for the lifetime of the game
+	private static final String[] SKIN_ASSETS = {
+			"ui/uiskin.atlas", "fonts/default.fnt", "fonts/larger-font.fnt", "images/background.png"
+	};
+
 	private SpriteBatch batch;
-	private AssetManager assetManager;
+	private ResourceCache resources;
 	private Skin uiSkin;
+	private RunDatabase runs;
+	private AssetDescriptor<?>[] gameplayAssets;
+	// Null unless launched to benchmark a scripted flight
+	private final FlightBenchmark benchmark;
+
+	public MyGdxGame() {
+		this(null);
+	}
+
+	/**
+	 * Skips the selection screen and flies the benchmark's level, exiting once it has finished.
+	 */
+	public MyGdxGame(FlightBenchmark benchmark) {
+		this.benchmark = benchmark;
+	}
 
 	@Override
 	public void create() {
-		batch = new SpriteBatch();
-		assetManager = new AssetManager();
-
-		// Load assets
-		assetManager.load("fonts/default.fnt", BitmapFont.class);
-		assetManager.load("fonts/larger-font.fnt", BitmapFont.class);
-		assetManager.load("images/default-round.png", Texture.class);
-		assetManager.load("images/default-round-down.png", Texture.class);
-		assetManager.load("images/background.png", Texture.class);
-		assetManager.load("images/map1.png", Texture.class);
-		assetManager.load("images/Zepplin L19.png", Texture.class);
-		assetManager.load("images/Zepplin L20.png", Texture.class);
-		assetManager.load("images/history-background.png", Texture.class);
-		assetManager.load("images/info-background.png", Texture.class);
-		assetManager.load("sounds/zeppelinSound.mp3", Sound.class);
-		assetManager.load("sounds/WindSound.mp3", Sound.class);
-		assetManager.load("sounds/gameOverSound.mp3", Sound.class);
-		assetManager.load("sounds/winSound.mp3", Sound.class);
-		assetManager.load("ui/uiskin.atlas", TextureAtlas.class);
-
-		// Finish loading
-		assetManager.finishLoading();
-
-		// Create the skin
-		uiSkin = new Skin();
-		uiSkin.addRegions(assetManager.get("ui/uiskin.atlas", TextureAtlas.class));
-		uiSkin.add("default-font", assetManager.get("fonts/default.fnt", BitmapFont.class));
-		uiSkin.add("larger-font", assetManager.get("fonts/larger-font.fnt", BitmapFont.class));
-		uiSkin.add("background", new TextureRegionDrawable(new TextureRegion(assetManager.get("images/background.png", Texture.class))));
+		resources = new ResourceCache(new AssetManager());
+		batch = resources.track(new SpriteBatch(), "shared sprite batch");
+		try {
+			runs = RunDatabase.fromSystemProperties();
+		} catch (IOException e) {
+			Gdx.app.error("MyGdxGame", "Could not open the run database; runs will not be saved", e);
+		}
+
+		for (AssetDescriptor<?> asset : SELECTION_ASSETS) {
+			resources.preload(asset);
+		}
+		AssetDescriptor<?>[] sprites = GameplayAtlas.assets();
+		gameplayAssets = Arrays.copyOf(sprites, sprites.length + GAMEPLAY_SOUNDS.length);
+		System.arraycopy(GAMEPLAY_SOUNDS, 0, gameplayAssets, sprites.length, GAMEPLAY_SOUNDS.length);
+		for (AssetDescriptor<?> asset : gameplayAssets) {
+			resources.preload(asset);
+		}
+
+		setScreen(new LoadingScreen(resources, SELECTION_ASSETS, () -> {
+			createSkin();
+			if (benchmark != null) {
+				startLevel(benchmark.getZeppelinPath(), benchmark.getLevel());
+			} else {
+				setScreen(new ZeppelinSelection(this, resources, uiSkin));
+			}
+		}));
+	}
+
+	private void createSkin() {
+		uiSkin = resources.track(new Skin(), "ui skin");
+		uiSkin.addRegions(resources.acquire("ui/uiskin.atlas", TextureAtlas.class));
+		uiSkin.add("default-font", resources.acquire("fonts/default.fnt", BitmapFont.class));
+		uiSkin.add("larger-font", resources.acquire("fonts/larger-font.fnt", BitmapFont.class));
+		uiSkin.add("background", new TextureRegionDrawable(new TextureRegion(resources.acquire("images/background.png", Texture.class))));
 
 		// Load the JSON definitions
 		uiSkin.load(Gdx.files.internal("ui/uiskin.json"));
 
-		// Add a style for the title
-		uiSkin.add("title", new Label.LabelStyle(new BitmapFont(), com.badlogic.gdx.graphics.Color.BLACK));
+		// Add a style for the title; the skin owns its font so it is disposed with the skin
+		BitmapFont titleFont = new BitmapFont();
+		uiSkin.add("title-font", titleFont);
+		uiSkin.add("title", new Label.LabelStyle(titleFont, com.badlogic.gdx.graphics.Color.BLACK));
+	}
 
-		// Set the initial screen to ZeppelinSelection
-		setScreen(new ZeppelinSelection(this, batch, assetManager, uiSkin));
+	/**
+	 * Starts a level, first waiting on a loading screen if its assets are still streaming in. The
+	 * selection screen is disposed once the game screen has taken over.
+	 */
+	public void startLevel(String zeppelinTexture, int level) {
+		Screen selection = getScreen();
+		Runnable start = () -> {
+			GameScreen screen = new GameScreen(this, batch, resources, uiSkin, zeppelinTexture, level);
+			if (benchmark != null) {
+				screen.setController(new ScriptedController());
+			}
+			setScreen(screen);
+			selection.dispose();
+		};
+		if (resources.isLoaded(gameplayAssets)) {
+			start.run();
+		} else {
+			setScreen(new LoadingScreen(resources, gameplayAssets, start));
+		}
+	}
+
+	// Null when the run database could not be opened
+	public RunDatabase getRunDatabase() {
+		return runs;
+	}
+
+	@Override
+	public void render() {
+		resources.update(getScreen() instanceof LoadingScreen ? LOADING_BUDGET_MILLIS : BACKGROUND_BUDGET_MILLIS);
+		super.render();
+		if (benchmark != null && getScreen() instanceof GameScreen && benchmark.frame()) {
+			System.out.println(benchmark.report(((GameScreen) getScreen()).getQualityGovernor()));
+			Gdx.app.exit();
+		}
 	}
 
 	@Override
 	public void dispose() {
-		if (batch != null) batch.dispose();
-		if (assetManager != null) assetManager.dispose();
-		if (uiSkin != null) uiSkin.dispose();
+		Screen screen = getScreen();
+		if (screen != null) {
+			screen.hide();
+			screen.dispose();
+		}
+		if (uiSkin != null) {
+			// The fonts belong to the cache, not to the skin
+			uiSkin.remove("default-font", BitmapFont.class);
+			uiSkin.remove("larger-font", BitmapFont.class);
+			resources.dispose(uiSkin);
+			for (String asset : SKIN_ASSETS) {
+				resources.release(asset);
+			}
+		}
+		resources.dispose(batch);
+		resources.dispose();
+		if (runs != null) {
+			runs.close();
+		}
 	}
 }
@@ -3,15 +3,26 @@ package com.mygdx.game;
 import com.badlogic.gdx.math.Vector2;
 
 public class Player {
+    // Rates are per second; the original per-frame tuning assumed 60 frames per second
+    private static final float CLIMB_RATE = 6f;
+    private static final float VERTICAL_DAMPING = 0.6f;
+    private static final float WIND_EFFECT_X = 12f;
+    private static final float WIND_EFFECT_Y = 18f;
+    // Fraction of the climb rate lost in full cloud cover
+    private static final float CLOUD_CLIMB_PENALTY = 0.5f;
+
     private final Vector2 position;
+    private final Vector2 previousPosition;
     private final Vector2 velocity;
     public boolean canMove;
     private float speed = 0;
     private boolean gameStarted = false;
     private boolean paused = false;
+    private float cloudCover;
 
     public Player(float startX, float startY) {
         this.position = new Vector2(startX, startY);
+        this.previousPosition = new Vector2(startX, startY);
         this.velocity = new Vector2(0, 0);
     }
 
@@ -28,26 +39,29 @@ public class Player {
         return gameStarted;
     }
 
-    public void moveUp() {
+    public void moveUp(float delta) {
         if (canMove && !paused) {
-            velocity.y = Math.min(velocity.y + 0.1f, speed);
+            float climbRate = CLIMB_RATE * (1 - CLOUD_CLIMB_PENALTY * cloudCover);
+            velocity.y = Math.min(velocity.y + climbRate * delta, speed);
         }
     }
 
-    public void moveDown() {
+    public void moveDown(float delta) {
         if (canMove && !paused) {
-            velocity.y = Math.max(velocity.y - 0.1f, -speed);
+            velocity.y = Math.max(velocity.y - CLIMB_RATE * delta, -speed);
         }
     }
 
     public void update(float delta) {
+        previousPosition.set(position);
         if (canMove && !paused) {
             position.add(velocity.x * delta, velocity.y * delta);
 
+            float damping = VERTICAL_DAMPING * delta;
             if (velocity.y > 0) {
-                velocity.y = Math.max(0, velocity.y - 0.01f);
+                velocity.y = Math.max(0, velocity.y - damping);
             } else if (velocity.y < 0) {
-                velocity.y = Math.min(0, velocity.y + 0.01f);
+                velocity.y = Math.min(0, velocity.y + damping);
             }
         }
     }
@@ -60,17 +74,52 @@ public class Player {
         }
     }
 
+    /**
+     * Puts the player in flight at the given state, as used by the route planner's model.
+     */
+    public void setFlightState(float x, float y, float velocityY, float speed) {
+        position.set(x, y);
+        previousPosition.set(x, y);
+        velocity.set(-speed, velocityY);
+        this.speed = speed;
+        canMove = true;
+        gameStarted = true;
+        paused = false;
+    }
+
     public void reset(float startX, float startY) {
         position.set(startX, startY);
+        previousPosition.set(startX, startY);
         velocity.set(0, 0);
         speed = 0;
         canMove = false;
         gameStarted = false;
         paused = false; // Reset paused state
+        cloudCover = 0;
+    }
+
+    public Vector2 getPosition(Vector2 out) {
+        return out.set(position);
+    }
+
+    public float getX() {
+        return position.x;
+    }
+
+    public float getY() {
+        return position.y;
     }
 
-    public Vector2 getPosition() {
-        return position.cpy();
+    public float getInterpolatedX(float alpha) {
+        return previousPosition.x + (position.x - previousPosition.x) * alpha;
+    }
+
+    public float getInterpolatedY(float alpha) {
+        return previousPosition.y + (position.y - previousPosition.y) * alpha;
+    }
+
+    public float getVelocityY() {
+        return velocity.y;
     }
 
     public float getSpeed() {
@@ -85,13 +134,25 @@ public class Player {
         return position.x < leftBound || position.x > 800 || position.y < 0 || position.y > 600;
     }
 
-    public void applyWindEffect(Vector2 wind) {
+    public void applyWindEffect(Vector2 wind, float delta) {
         if (!paused) {
 
-            velocity.add(wind.x * 0.2f, wind.y * 0.3f);
+            velocity.add(wind.x * WIND_EFFECT_X * delta, wind.y * WIND_EFFECT_Y * delta);
         }
     }
 
+    /**
+     * Applies wind that already includes cloud turbulence; the cover, from 0 to 1, also slows climbing.
+     */
+    public void applyWindEffect(Vector2 wind, float cloudCover, float delta) {
+        this.cloudCover = cloudCover;
+        applyWindEffect(wind, delta);
+    }
+
+    public float getCloudCover() {
+        return cloudCover;
+    }
+
     public void setPaused(boolean paused) {
         this.paused = paused;
     }
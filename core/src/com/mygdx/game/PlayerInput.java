@@ -0,0 +1,20 @@
+package com.mygdx.game;
+
+/**
+ * Bit flags for the keys that drive the zeppelin during one simulation step.
+ */
+public final class PlayerInput {
+    public static final int NONE = 0;
+    public static final int ACCELERATE = 1;
+    public static final int DECELERATE = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int RESTART = 1 << 4;
+
+    private PlayerInput() {
+    }
+
+    public static boolean isSet(int input, int flag) {
+        return (input & flag) != 0;
+    }
+}
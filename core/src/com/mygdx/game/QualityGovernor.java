@@ -0,0 +1,182 @@
+package com.mygdx.game;
+
+import java.util.Locale;
+
+/**
+ * Trades cloud detail for frame rate when frames run over budget. It averages the frame interval
+ * and the time spent rendering each frame over short windows and moves one {@link Tier} down when
+ * frames are missed or the work comes close to the budget, and one up after a longer stretch with
+ * plenty of headroom. The gap between the two thresholds and the longer wait to recover keep it
+ * from oscillating; a recovery that is undone straight away doubles the wait before the next one.
+ *
+ * Only what is drawn changes. The simulation, cloud cover and the cloud count in the HUD see every
+ * cloud at every tier.
+ */
+public class QualityGovernor {
+    public enum Tier {
+        FULL(1f, 1f, 0f),
+        HALF_RES_CLOUDS(1f, 0.5f, 0.1f),
+        FEWER_CLOUDS(0.6f, 0.5f, 0.25f),
+        SPARSE_CLOUDS(0.35f, 0.5f, 0.5f),
+        MINIMAL(0.2f, 0.25f, 0.5f);
+
+        // Share of the clouds drawn, resolution of the cached cloud layers, seconds between HUD updates
+        public final float cloudShare;
+        public final float layerDetail;
+        public final float hudInterval;
+
+        Tier(float cloudShare, float layerDetail, float hudInterval) {
+            this.cloudShare = cloudShare;
+            this.layerDetail = layerDetail;
+            this.hudInterval = hudInterval;
+        }
+    }
+
+    public interface Listener {
+        void onTierChange(Tier from, Tier to, float intervalMillis, float workMillis);
+    }
+
+    public static final float DEFAULT_BUDGET_MILLIS = 1000f / 60;
+    private static final Tier[] TIERS = Tier.values();
+    private static final float WINDOW_SECONDS = 0.5f;
+    // Frames this long are loading or collection hitches, not a sign of the load
+    private static final float HITCH_SECONDS = 0.25f;
+    // Intervals this far over budget mean frames were missed
+    private static final float MISSED = 1.2f;
+    private static final float DEGRADE_WORK = 0.85f;
+    private static final float RECOVER_WORK = 0.45f;
+    private static final int DEGRADE_WINDOWS = 2;
+    private static final int RECOVER_WINDOWS = 10;
+    private static final int MAX_RECOVER_WINDOWS = 160;
+
+    private final float budget;
+    private final boolean pinned;
+    private final float[] secondsAtTier = new float[TIERS.length];
+    private Listener listener;
+    private Tier tier;
+    private float windowTime;
+    private float windowInterval;
+    private float windowWork;
+    private int windowFrames;
+    private int overWindows;
+    private int underWindows;
+    private int recoverWindows = RECOVER_WINDOWS;
+    private int windowsSinceRecovery = Integer.MAX_VALUE;
+    private int downgrades;
+    private int upgrades;
+
+    /**
+     * @param pinnedTier the tier to stay at, or null to adapt
+     */
+    public QualityGovernor(float budgetMillis, Tier pinnedTier) {
+        this.budget = budgetMillis / 1000;
+        this.pinned = pinnedTier != null;
+        this.tier = pinned ? pinnedTier : Tier.FULL;
+    }
+
+    // -Dzeppelin.frameBudgetMillis=N sets the budget; -Dzeppelin.quality=<tier name> fixes the tier
+    public static QualityGovernor fromSystemProperties() {
+        float budget = Float.parseFloat(System.getProperty("zeppelin.frameBudgetMillis", String.valueOf(DEFAULT_BUDGET_MILLIS)));
+        String quality = System.getProperty("zeppelin.quality");
+        return new QualityGovernor(budget, quality == null ? null : Tier.valueOf(quality.toUpperCase(Locale.ROOT)));
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Records one frame: the time since the previous one and the time spent producing it, in
+     * seconds. Returns true when the tier changed.
+     */
+    public boolean record(float intervalSeconds, float workSeconds) {
+        if (intervalSeconds > HITCH_SECONDS) {
+            return false;
+        }
+        secondsAtTier[tier.ordinal()] += intervalSeconds;
+        windowTime += intervalSeconds;
+        windowInterval += intervalSeconds;
+        windowWork += workSeconds;
+        windowFrames++;
+        if (windowTime < WINDOW_SECONDS || pinned) {
+            return false;
+        }
+        float interval = windowInterval / windowFrames;
+        float work = windowWork / windowFrames;
+        windowTime = windowInterval = windowWork = 0;
+        windowFrames = 0;
+        if (windowsSinceRecovery < Integer.MAX_VALUE) {
+            windowsSinceRecovery++;
+        }
+
+        if (interval > budget * MISSED || work > budget * DEGRADE_WORK) {
+            underWindows = 0;
+            if (++overWindows >= DEGRADE_WINDOWS && tier.ordinal() < TIERS.length - 1) {
+                if (windowsSinceRecovery <= RECOVER_WINDOWS) {
+                    recoverWindows = Math.min(MAX_RECOVER_WINDOWS, recoverWindows * 2);
+                }
+                downgrades++;
+                return change(TIERS[tier.ordinal() + 1], interval, work);
+            }
+        } else if (work < budget * RECOVER_WORK) {
+            overWindows = 0;
+            if (++underWindows >= recoverWindows && tier.ordinal() > 0) {
+                upgrades++;
+                windowsSinceRecovery = 0;
+                return change(TIERS[tier.ordinal() - 1], interval, work);
+            }
+        } else {
+            // Within the band: neither pressure to degrade nor headroom to recover
+            overWindows = 0;
+            underWindows = 0;
+        }
+        return false;
+    }
+
+    /**
+     * Starts the windows afresh, as after loading a level, keeping the tier.
+     */
+    public void reset() {
+        windowTime = windowInterval = windowWork = 0;
+        windowFrames = 0;
+        overWindows = 0;
+        underWindows = 0;
+    }
+
+    private boolean change(Tier next, float interval, float work) {
+        Tier previous = tier;
+        tier = next;
+        overWindows = 0;
+        underWindows = 0;
+        if (listener != null) {
+            listener.onTierChange(previous, next, interval * 1000, work * 1000);
+        }
+        return true;
+    }
+
+    public Tier getTier() {
+        return tier;
+    }
+
+    public int getDowngrades() {
+        return downgrades;
+    }
+
+    public int getUpgrades() {
+        return upgrades;
+    }
+
+    public float getSecondsAt(Tier tier) {
+        return secondsAtTier[tier.ordinal()];
+    }
+
+    public String summary() {
+        StringBuilder text = new StringBuilder("tier=").append(tier.name())
+                .append(" downgrades=").append(downgrades).append(" upgrades=").append(upgrades);
+        for (Tier each : TIERS) {
+            text.append(' ').append(each.name().toLowerCase(Locale.ROOT)).append('=')
+                    .append(Math.round(secondsAtTier[each.ordinal()])).append('s');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.mygdx.game;
+
+import java.util.Random;
+
+/**
+ * Mashes keys at random, holding each combination for a random number of steps.
+ */
+public class RandomController implements SimulationController {
+    private static final int MAX_HOLD_STEPS = 30;
+    private static final int KEY_MASK = PlayerInput.ACCELERATE | PlayerInput.DECELERATE | PlayerInput.UP | PlayerInput.DOWN;
+
+    private final Random random;
+    private int input;
+    private int holdSteps;
+
+    public RandomController(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int nextInput(Simulation simulation) {
+        if (!simulation.getPlayer().hasGameStarted()) {
+            return PlayerInput.ACCELERATE;
+        }
+        if (holdSteps-- <= 0) {
+            input = random.nextInt() & KEY_MASK;
+            holdSteps = random.nextInt(MAX_HOLD_STEPS);
+        }
+        return input;
+    }
+}
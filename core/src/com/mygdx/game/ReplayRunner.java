@@ -0,0 +1,103 @@
+package com.mygdx.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays recorded sessions headless and as fast as possible, printing the final game state and the
+ * step timing of each one. Differences in the final state between builds mean the gameplay changed.
+ *
+ * Usage: ReplayRunner [--frames outputDir] recording-or-directory...
+ */
+public class ReplayRunner {
+    public static final String EXTENSION = ".zrec";
+
+    public static void main(String[] args) throws IOException {
+        File framesDir = null;
+        List<File> recordings = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--frames".equals(args[i]) && i + 1 < args.length) {
+                framesDir = new File(args[++i]);
+                framesDir.mkdirs();
+            } else {
+                collect(new File(args[i]), recordings);
+            }
+        }
+
+        System.out.println("recording,level,seed,ticks,outcome,x,y,remaining,windX,windY,stepP50Micros,stepP95Micros,stepP99Micros,stepMaxMicros,ticksPerSecond");
+        for (File file : recordings) {
+            InputRecording recording = InputRecording.read(file);
+            long[] stepNanos = new long[recording.getTickCount()];
+            long start = System.nanoTime();
+            Simulation simulation = replay(recording, stepNanos);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            if (framesDir != null) {
+                writeFrames(new File(framesDir, file.getName() + ".frames.csv"), stepNanos);
+            }
+            long[] sorted = stepNanos.clone();
+            Arrays.sort(sorted);
+            System.out.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%s,%.3f,%.3f,%.3f,%.4f,%.4f,%.2f,%.2f,%.2f,%.2f,%.0f",
+                    file.getName(), recording.getLevel(), recording.getSeed(), recording.getTickCount(),
+                    simulation.getOutcome(), simulation.getPlayer().getX(), simulation.getPlayer().getY(),
+                    simulation.getRemainingTime(),
+                    simulation.getEnvironment().getWind().x, simulation.getEnvironment().getWind().y,
+                    percentile(sorted, 50) / 1e3, percentile(sorted, 95) / 1e3, percentile(sorted, 99) / 1e3,
+                    percentile(sorted, 100) / 1e3, recording.getTickCount() / seconds));
+        }
+    }
+
+    /**
+     * Runs every recorded step through {@link Simulation#step}, the same path GameScreen uses, and
+     * stores the duration of each step in {@code stepNanos} when it is not null.
+     */
+    public static Simulation replay(InputRecording recording, long[] stepNanos) {
+        Simulation simulation = recording.createSimulation();
+        float step = 1f / recording.getTickRate();
+        for (int tick = 0; tick < recording.getTickCount(); tick++) {
+            long before = System.nanoTime();
+            simulation.step(step, recording.getInput(tick));
+            if (stepNanos != null) {
+                stepNanos[tick] = System.nanoTime() - before;
+            }
+        }
+        return simulation;
+    }
+
+    private static void collect(File file, List<File> recordings) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    collect(child, recordings);
+                }
+            }
+        } else if (file.getName().endsWith(EXTENSION)) {
+            recordings.add(file);
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) ((long) percentile * sorted.length / 100))];
+    }
+
+    private static void writeFrames(File file, long[] stepNanos) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("tick,nanos");
+            for (int tick = 0; tick < stepNanos.length; tick++) {
+                out.print(tick);
+                out.print(',');
+                out.println(stepNanos[tick]);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single owner of the game's assets and native resources. Screens acquire assets and release them
+ * when done; textures nobody references stay cached until the texture budget is exceeded, then the
+ * least recently used ones are unloaded. Native objects created outside the AssetManager are
+ * registered with {@link #track} so that {@link #leakReport()} can list whatever was never disposed.
+ */
+public class ResourceCache implements Disposable {
+    private static final long DEFAULT_TEXTURE_BUDGET_MB = 64;
+
+    private final AssetManager assetManager;
+    private final long textureBudgetBytes;
+    private final boolean recordAllocationSites;
+    // Access order, so iteration starts with the least recently used asset
+    private final Map<String, Entry> entries = new LinkedHashMap<>(32, 0.75f, true);
+    private final Map<Disposable, Site> tracked = new IdentityHashMap<>();
+    private long textureBytes;
+
+    private static final class Entry {
+        final AssetDescriptor<?> descriptor;
+        int references;
+        long bytes = -1;
+        Throwable acquiredAt;
+
+        Entry(AssetDescriptor<?> descriptor) {
+            this.descriptor = descriptor;
+        }
+    }
+
+    private static final class Site {
+        final String description;
+        final Throwable allocatedAt;
+
+        Site(String description, Throwable allocatedAt) {
+            this.description = description;
+            this.allocatedAt = allocatedAt;
+        }
+    }
+
+    public ResourceCache(AssetManager assetManager) {
+        this(assetManager, Long.getLong("zeppelin.textureBudgetMB", DEFAULT_TEXTURE_BUDGET_MB) * 1024 * 1024,
+                Boolean.getBoolean("zeppelin.trackLeaks"));
+    }
+
+    public ResourceCache(AssetManager assetManager, long textureBudgetBytes, boolean recordAllocationSites) {
+        this.assetManager = assetManager;
+        this.textureBudgetBytes = textureBudgetBytes;
+        this.recordAllocationSites = recordAllocationSites;
+    }
+
+    /**
+     * Queues an asset for background loading without taking a reference to it.
+     */
+    public void preload(AssetDescriptor<?> descriptor) {
+        entryFor(descriptor);
+    }
+
+    public boolean update(int millis) {
+        return assetManager.isFinished() || assetManager.update(millis);
+    }
+
+    public boolean isLoaded(AssetDescriptor<?> descriptor) {
+        return assetManager.isLoaded(descriptor);
+    }
+
+    public boolean isLoaded(AssetDescriptor<?>[] descriptors) {
+        for (AssetDescriptor<?> descriptor : descriptors) {
+            if (!assetManager.isLoaded(descriptor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the asset and takes a reference to it, loading it synchronously if it is not ready yet.
+     */
+    public <T> T acquire(AssetDescriptor<T> descriptor) {
+        Entry entry = entryFor(descriptor);
+        T asset = assetManager.finishLoadingAsset(descriptor);
+        entry.references++;
+        if (recordAllocationSites) {
+            entry.acquiredAt = new Throwable("acquired " + descriptor.fileName);
+        }
+        if (entry.bytes < 0 && asset instanceof Texture) {
+            Texture texture = (Texture) asset;
+            entry.bytes = (long) texture.getWidth() * texture.getHeight() * 4;
+            textureBytes += entry.bytes;
+            evictUnreferenced();
+        }
+        return asset;
+    }
+
+    public <T> T acquire(String fileName, Class<T> type) {
+        return acquire(new AssetDescriptor<>(fileName, type));
+    }
+
+    public void release(String fileName) {
+        Entry entry = entries.get(fileName);
+        if (entry == null || entry.references == 0) {
+            throw new IllegalStateException("Released " + fileName + " more often than it was acquired");
+        }
+        entry.references--;
+        if (entry.references == 0) {
+            entry.acquiredAt = null;
+            evictUnreferenced();
+        }
+    }
+
+    private Entry entryFor(AssetDescriptor<?> descriptor) {
+        Entry entry = entries.get(descriptor.fileName);
+        if (entry == null) {
+            entry = new Entry(descriptor);
+            entries.put(descriptor.fileName, entry);
+            assetManager.load(descriptor);
+        }
+        return entry;
+    }
+
+    private void evictUnreferenced() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (textureBytes > textureBudgetBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.references == 0 && entry.bytes >= 0) {
+                iterator.remove();
+                textureBytes -= entry.bytes;
+                assetManager.unload(entry.descriptor.fileName);
+            }
+        }
+    }
+
+    public long getTextureBytes() {
+        return textureBytes;
+    }
+
+    /**
+     * Registers a native resource created outside the AssetManager, such as a renderer or a stage.
+     */
+    public <T extends Disposable> T track(T resource, String description) {
+        tracked.put(resource, new Site(description, recordAllocationSites ? new Throwable("allocated " + description) : null));
+        return resource;
+    }
+
+    public void dispose(Disposable resource) {
+        if (resource != null) {
+            tracked.remove(resource);
+            resource.dispose();
+        }
+    }
+
+    /**
+     * Lists tracked native resources that were never disposed and assets still referenced. Run with
+     * -Dzeppelin.trackLeaks=true to include where each one was allocated or acquired.
+     */
+    public String leakReport() {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        for (Site site : tracked.values()) {
+            out.println("Undisposed " + site.description);
+            if (site.allocatedAt != null) {
+                site.allocatedAt.printStackTrace(out);
+            }
+        }
+        for (Entry entry : entries.values()) {
+            if (entry.references > 0) {
+                out.println("Unreleased " + entry.descriptor.fileName + " (" + entry.references + " references)");
+                if (entry.acquiredAt != null) {
+                    entry.acquiredAt.printStackTrace(out);
+                }
+            }
+        }
+        out.flush();
+        return text.toString();
+    }
+
+    @Override
+    public void dispose() {
+        String report = leakReport();
+        if (!report.isEmpty()) {
+            Gdx.app.error("ResourceCache", "Leaked resources at shutdown:\n" + report);
+        }
+        for (Disposable resource : tracked.keySet()) {
+            resource.dispose();
+        }
+        tracked.clear();
+        entries.clear();
+        assetManager.dispose();
+    }
+}
@@ -0,0 +1,75 @@
+package com.mygdx.game;
+
+/**
+ * Immutable result of one planning run: a speed and a vertical input per fixed-length segment,
+ * starting at a given elapsed game time, plus the positions the planner expects at each segment
+ * boundary so the autopilot can tell when the flight has drifted away from the plan.
+ */
+public final class RoutePlan {
+    private final float startTime;
+    private final float segmentDuration;
+    private final float[] speeds;
+    private final int[] verticalInputs;
+    private final float[] expectedX;
+    private final float[] expectedY;
+    private final boolean reachesDestination;
+
+    RoutePlan(float startTime, float segmentDuration, float[] speeds, int[] verticalInputs,
+              float[] expectedX, float[] expectedY, boolean reachesDestination) {
+        this.startTime = startTime;
+        this.segmentDuration = segmentDuration;
+        this.speeds = speeds;
+        this.verticalInputs = verticalInputs;
+        this.expectedX = expectedX;
+        this.expectedY = expectedY;
+        this.reachesDestination = reachesDestination;
+    }
+
+    public float getStartTime() {
+        return startTime;
+    }
+
+    public float getEndTime() {
+        return startTime + speeds.length * segmentDuration;
+    }
+
+    public boolean covers(float elapsed) {
+        return elapsed >= startTime && elapsed < getEndTime();
+    }
+
+    public int segmentAt(float elapsed) {
+        return Math.max(0, Math.min(speeds.length - 1, (int) ((elapsed - startTime) / segmentDuration)));
+    }
+
+    public int getSegmentCount() {
+        return speeds.length;
+    }
+
+    public float getSpeed(int segment) {
+        return speeds[segment];
+    }
+
+    // PlayerInput.UP, PlayerInput.DOWN or PlayerInput.NONE
+    public int getVerticalInput(int segment) {
+        return verticalInputs[segment];
+    }
+
+    public float getExpectedX(float elapsed) {
+        return interpolate(expectedX, elapsed);
+    }
+
+    public float getExpectedY(float elapsed) {
+        return interpolate(expectedY, elapsed);
+    }
+
+    public boolean reachesDestination() {
+        return reachesDestination;
+    }
+
+    private float interpolate(float[] values, float elapsed) {
+        float position = Math.max(0, Math.min(speeds.length, (elapsed - startTime) / segmentDuration));
+        int segment = Math.min(speeds.length - 1, (int) position);
+        float fraction = position - segment;
+        return values[segment] + (values[segment + 1] - values[segment]) * fraction;
+    }
+}
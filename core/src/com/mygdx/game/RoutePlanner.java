@@ -0,0 +1,256 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntFloatMap;
+
+import java.util.PriorityQueue;
+
+/**
+ * Time-optimal route search with A* over a space-time grid. Each edge holds one speed and one
+ * vertical input for a fixed segment and is integrated with the real {@link Player} physics under
+ * the wind the timeline forecasts for that moment, so the route accounts for wind that has not
+ * arrived yet, plus the local wind field as it stood when planning began. A state is discretised by position, vertical velocity and speed, and only the
+ * earliest arrival in each grid cell is expanded.
+ *
+ * Not thread-safe; the autopilot runs one search at a time on its executor.
+ */
+public class RoutePlanner {
+    public static final float SEGMENT_DURATION = 0.5f;
+    private static final int SUBSTEPS = 10;
+    private static final float[] SPEEDS = {5, 12, 20};
+    private static final int[] VERTICAL_INPUTS = {PlayerInput.NONE, PlayerInput.UP, PlayerInput.DOWN};
+    private static final float MAX_SPEED = 20;
+    private static final float SPEED_CHANGE_RATE = 6f;
+    private static final float ARRIVAL_RADIUS = 6f;
+    private static final float CELL_SIZE = 8f;
+    private static final float VELOCITY_CELL = 1.5f;
+    private static final int VELOCITY_CELLS = 41;
+    private static final int MAX_EXPANSIONS = 60000;
+    private static final int FORECAST_EVENTS = 32;
+
+    /**
+     * Everything the search needs, copied on the simulation thread so planning never touches live state.
+     */
+    public static final class Start {
+        final float elapsed;
+        final float remaining;
+        final float x;
+        final float y;
+        final float velocityY;
+        final float speed;
+        final float windX;
+        final float windY;
+        final float cloudCover;
+        final float targetX;
+        final float targetY;
+        final float destinationX;
+        final float destinationY;
+        final LevelLayout layout;
+        final WindField.Grid localWind;
+        final float[] eventTimes = new float[FORECAST_EVENTS];
+        final float[] eventTargetsX = new float[FORECAST_EVENTS];
+        final float[] eventTargetsY = new float[FORECAST_EVENTS];
+        final int events;
+
+        public Start(Simulation simulation) {
+            Player player = simulation.getPlayer();
+            EnvironmentalManager environment = simulation.getEnvironment();
+            WindTimeline timeline = environment.getWindTimeline();
+            elapsed = simulation.getElapsedTime();
+            remaining = simulation.getRemainingTime();
+            x = player.getX();
+            y = player.getY();
+            velocityY = player.getVelocityY();
+            speed = Math.max(1, player.getSpeed());
+            windX = environment.getWind().x;
+            windY = environment.getWind().y;
+            cloudCover = environment.getCloudCover();
+            targetX = timeline.getTarget().x;
+            targetY = timeline.getTarget().y;
+            destinationX = simulation.getDestination().x;
+            destinationY = simulation.getDestination().y;
+            // Immutable, so the planner may read the no-fly zones from its own thread
+            layout = simulation.getLayout();
+            localWind = environment.getWindField().copyGrid();
+            events = timeline.forecast(eventTimes, eventTargetsX, eventTargetsY);
+        }
+    }
+
+    private static final class Node implements Comparable<Node> {
+        final Node parent;
+        final float speedTarget;
+        final int verticalInput;
+        final float x;
+        final float y;
+        final float velocityY;
+        final float speed;
+        final float windX;
+        final float windY;
+        final float time;
+        final float estimate;
+
+        Node(Node parent, float speedTarget, int verticalInput, float x, float y, float velocityY, float speed,
+             float windX, float windY, float time, float estimate) {
+            this.parent = parent;
+            this.speedTarget = speedTarget;
+            this.verticalInput = verticalInput;
+            this.x = x;
+            this.y = y;
+            this.velocityY = velocityY;
+            this.speed = speed;
+            this.windX = windX;
+            this.windY = windY;
+            this.time = time;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            return Float.compare(estimate, other.estimate);
+        }
+    }
+
+    private final Player model = new Player(0, 0);
+    private final Vector2 wind = new Vector2();
+    private final Vector2 felt = new Vector2();
+    private final IntFloatMap earliest = new IntFloatMap();
+    private final PriorityQueue<Node> open = new PriorityQueue<>();
+    private boolean arrived;
+
+    public RoutePlan plan(Start start) {
+        earliest.clear();
+        open.clear();
+        Node first = new Node(null, start.speed, PlayerInput.NONE, start.x, start.y, start.velocityY, start.speed,
+                start.windX, start.windY, 0, heuristic(start, start.x));
+        open.add(first);
+        Node best = first;
+        Node goal = null;
+        int expansions = 0;
+        while (!open.isEmpty() && expansions < MAX_EXPANSIONS) {
+            Node node = open.poll();
+            int key = key(node);
+            if (earliest.get(key, Float.MAX_VALUE) < node.time) {
+                continue;
+            }
+            expansions++;
+            if (remaining(start, node) < remaining(start, best)) {
+                best = node;
+            }
+            for (float speedTarget : SPEEDS) {
+                for (int verticalInput : VERTICAL_INPUTS) {
+                    Node next = fly(node, speedTarget, verticalInput, start);
+                    if (next == null) {
+                        continue;
+                    }
+                    if (arrived) {
+                        goal = next;
+                        break;
+                    }
+                    int nextKey = key(next);
+                    if (next.time < earliest.get(nextKey, Float.MAX_VALUE)) {
+                        earliest.put(nextKey, next.time);
+                        open.add(next);
+                    }
+                }
+                if (goal != null) {
+                    break;
+                }
+            }
+            if (goal != null) {
+                break;
+            }
+        }
+        Node end = goal != null ? goal : best;
+        return end == first ? null : toPlan(start, end, goal != null);
+    }
+
+    // Integrates one segment, or returns null when the zeppelin leaves the map or runs out of time
+    private Node fly(Node from, float speedTarget, int verticalInput, Start start) {
+        model.setFlightState(from.x, from.y, from.velocityY, from.speed);
+        wind.set(from.windX, from.windY);
+        float step = SEGMENT_DURATION / SUBSTEPS;
+        float time = from.time;
+        arrived = false;
+        for (int i = 0; i < SUBSTEPS; i++) {
+            float speedChange = SPEED_CHANGE_RATE * step;
+            float speed = model.getSpeed();
+            model.adjustSpeed(speed < speedTarget ? Math.min(speedChange, speedTarget - speed)
+                    : -Math.min(speedChange, speed - speedTarget));
+            if (verticalInput == PlayerInput.UP) {
+                model.moveUp(step);
+            } else if (verticalInput == PlayerInput.DOWN) {
+                model.moveDown(step);
+            }
+            model.update(step);
+            time += step;
+            forecastWind(start, time, step);
+            float centreX = model.getX() + EnvironmentalManager.ZEPPELIN_WIDTH / 2;
+            float centreY = model.getY() + EnvironmentalManager.ZEPPELIN_HEIGHT / 2;
+            felt.set(wind).add(start.localWind.sampleX(centreX, centreY), start.localWind.sampleY(centreX, centreY));
+            model.applyWindEffect(felt, start.cloudCover, step);
+            if (time > start.remaining || model.isOutOfBounds(0) || start.layout.isInNoFlyZone(model.getX(), model.getY(),
+                    EnvironmentalManager.ZEPPELIN_WIDTH, EnvironmentalManager.ZEPPELIN_HEIGHT)) {
+                return null;
+            }
+            if (Vector2.dst(model.getX(), model.getY(), start.destinationX, start.destinationY) < ARRIVAL_RADIUS) {
+                arrived = true;
+                break;
+            }
+        }
+        return new Node(from, speedTarget, verticalInput, model.getX(), model.getY(), model.getVelocityY(),
+                model.getSpeed(), wind.x, wind.y, time, time + heuristic(start, model.getX()));
+    }
+
+    // Same easing as EnvironmentalManager, towards the target the timeline holds at that moment
+    private void forecastWind(Start start, float time, float step) {
+        float targetX = start.targetX;
+        float targetY = start.targetY;
+        for (int k = 0; k < start.events && start.eventTimes[k] <= time; k++) {
+            targetX = start.eventTargetsX[k];
+            targetY = start.eventTargetsY[k];
+        }
+        float blend = EnvironmentalManager.LERP_RATE * step;
+        wind.x += (targetX - wind.x) * blend;
+        wind.y += (targetY - wind.y) * blend;
+    }
+
+    private static RoutePlan toPlan(Start start, Node end, boolean reachesDestination) {
+        int segments = 0;
+        for (Node node = end; node.parent != null; node = node.parent) {
+            segments++;
+        }
+        float[] speeds = new float[segments];
+        int[] verticalInputs = new int[segments];
+        float[] expectedX = new float[segments + 1];
+        float[] expectedY = new float[segments + 1];
+        Node node = end;
+        for (int i = segments; i > 0; i--) {
+            speeds[i - 1] = node.speedTarget;
+            verticalInputs[i - 1] = node.verticalInput;
+            expectedX[i] = node.x;
+            expectedY[i] = node.y;
+            node = node.parent;
+        }
+        expectedX[0] = node.x;
+        expectedY[0] = node.y;
+        return new RoutePlan(start.elapsed, SEGMENT_DURATION, speeds, verticalInputs, expectedX, expectedY, reachesDestination);
+    }
+
+    private static int key(Node node) {
+        int column = Math.max(0, Math.min(127, (int) (node.x / CELL_SIZE)));
+        int row = Math.max(0, Math.min(127, (int) (node.y / CELL_SIZE)));
+        int velocity = Math.max(0, Math.min(VELOCITY_CELLS - 1, Math.round(node.velocityY / VELOCITY_CELL) + VELOCITY_CELLS / 2));
+        int speed = Math.round(node.speed / 2);
+        return ((column * 128 + row) * VELOCITY_CELLS + velocity) * 16 + speed;
+    }
+
+    // Never overestimates: the zeppelin cannot close the horizontal gap faster than at full speed
+    private static float heuristic(Start start, float x) {
+        return Math.max(0, x - start.destinationX - ARRIVAL_RADIUS) / MAX_SPEED;
+    }
+
+    // How promising a node is as a partial plan when the destination is out of reach
+    private static float remaining(Start start, Node node) {
+        return heuristic(start, node.x) + Math.abs(node.y - start.destinationY) / MAX_SPEED;
+    }
+}
@@ -0,0 +1,488 @@
+package com.mygdx.game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Local store of every finished run. Runs are appended to numbered log segments by a single writer
+ * thread, which writes whatever has queued up since its last pass and syncs once per batch. Each
+ * level keeps its run count, win count and fastest wins on its standard map in an immutable index
+ * that is swapped on update, so leaderboard reads are a map lookup without locking.
+ *
+ * When a segment fills up, a new one is started and a background thread folds the full ones into a
+ * snapshot of the indexes and deletes them. Opening the store therefore reads the snapshot plus at
+ * most the segments written since, and history outside the leaderboards and counts is not kept.
+ */
+public class RunDatabase {
+    public static final int LEADERBOARD_SIZE = 10;
+    private static final int SNAPSHOT_MAGIC = 0x5A52554E; // "ZRUN"
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT = "runs.snapshot";
+    private static final String SEGMENT_PREFIX = "runs-";
+    private static final String SEGMENT_EXTENSION = ".log";
+    private static final int SEGMENT_RECORDS = 50000;
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_RECORD_BYTES = 1024;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    // Queued by close() to stop the writer once everything before it is written
+    private static final RunRecord CLOSE = new RunRecord(0, 0, Simulation.Outcome.RUNNING, "", 0, 0, 0, 0);
+
+    /**
+     * Counts and fastest wins for one level; never modified, only replaced.
+     */
+    static final class LevelIndex {
+        static final LevelIndex EMPTY = new LevelIndex(0, 0, new RunRecord[0]);
+
+        final int runs;
+        final int wins;
+        final RunRecord[] fastest;
+        final List<RunRecord> leaderboard;
+
+        LevelIndex(int runs, int wins, RunRecord[] fastest) {
+            this.runs = runs;
+            this.wins = wins;
+            this.fastest = fastest;
+            this.leaderboard = Collections.unmodifiableList(Arrays.asList(fastest));
+        }
+
+        LevelIndex with(RunRecord run) {
+            if (!run.isWin()) {
+                return new LevelIndex(runs + 1, wins, fastest);
+            }
+            // Only the level's standard map is raced; times on other maps are not comparable
+            if (run.getSeed() != LevelLayout.standardSeed(run.getLevel())) {
+                return new LevelIndex(runs + 1, wins + 1, fastest);
+            }
+            int at = Arrays.binarySearch(fastest, run, RunRecord.FASTEST_FIRST);
+            at = at < 0 ? -at - 1 : at;
+            if (at >= LEADERBOARD_SIZE) {
+                return new LevelIndex(runs + 1, wins + 1, fastest);
+            }
+            RunRecord[] next = new RunRecord[Math.min(LEADERBOARD_SIZE, fastest.length + 1)];
+            System.arraycopy(fastest, 0, next, 0, at);
+            next[at] = run;
+            System.arraycopy(fastest, at, next, at + 1, next.length - at - 1);
+            return new LevelIndex(runs + 1, wins + 1, next);
+        }
+    }
+
+    private final File directory;
+    private final Map<Integer, LevelIndex> levels;
+    private final BlockingQueue<RunRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ExecutorService compactor;
+    private final FrameBuffer frames = new FrameBuffer();
+    private final CRC32 crc = new CRC32();
+    private final Object progress = new Object();
+    // Guarded by progress
+    private long submitted;
+    private long written;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    // Writer thread only, once open has returned
+    private FileChannel segment;
+    private long segmentId;
+    private int segmentRecords;
+    private long segmentSize;
+
+    private RunDatabase(File directory, Map<Integer, LevelIndex> levels, long segmentId) throws IOException {
+        this.directory = directory;
+        this.levels = new ConcurrentHashMap<>(levels);
+        this.segmentId = segmentId;
+        this.segment = openSegment(segmentId);
+        this.segmentSize = segment.size();
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "run-database-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::writeLoop, "run-database-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Loads the snapshot and replays the segments written after it. A segment cut short by a crash
+     * is truncated after its last complete run; an unreadable snapshot is ignored and the counts are
+     * rebuilt from the segments that remain.
+     */
+    public static RunDatabase open(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create run database directory " + directory);
+        }
+        Map<Integer, LevelIndex> levels = new HashMap<>();
+        long firstSegment;
+        try {
+            firstSegment = readSnapshot(new File(directory, SNAPSHOT), levels);
+        } catch (IOException e) {
+            // Treated as absent: whatever the segments still hold is rebuilt, and compacted over it
+            levels.clear();
+            firstSegment = 0;
+        }
+        long lastSegment = firstSegment - 1;
+        boolean replayed = false;
+        for (long id : listSegments(directory)) {
+            File file = segmentFile(directory, id);
+            if (id < firstSegment) {
+                // Already folded into the snapshot by a compaction that stopped before deleting it
+                Files.deleteIfExists(file.toPath());
+                continue;
+            }
+            replay(file, levels);
+            lastSegment = Math.max(lastSegment, id);
+            replayed = true;
+        }
+        RunDatabase database = new RunDatabase(directory, levels, lastSegment + 1);
+        database.writer.start();
+        if (replayed) {
+            database.scheduleCompaction(new HashMap<>(levels), lastSegment + 1);
+        }
+        return database;
+    }
+
+    public static RunDatabase fromSystemProperties() throws IOException {
+        return open(new File(System.getProperty("zeppelin.runDir", "runs")));
+    }
+
+    /**
+     * Queues the run for writing and returns at once; it shows up in the indexes once written.
+     */
+    public void record(RunRecord run) {
+        if (closed) {
+            throw new IllegalStateException("Run database is closed");
+        }
+        synchronized (progress) {
+            submitted++;
+        }
+        queue.add(run);
+    }
+
+    // Fastest wins first, at most LEADERBOARD_SIZE of them
+    public List<RunRecord> getLeaderboard(int level) {
+        return index(level).leaderboard;
+    }
+
+    public int getRunCount(int level) {
+        return index(level).runs;
+    }
+
+    public int getWinCount(int level) {
+        return index(level).wins;
+    }
+
+    /**
+     * Waits until every run recorded so far has been written and synced.
+     */
+    public void flush() throws InterruptedException {
+        synchronized (progress) {
+            long target = submitted;
+            while (written < target) {
+                progress.wait();
+            }
+        }
+    }
+
+    /**
+     * The last write error, or null; runs still reach the in-memory indexes when the disk fails.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(CLOSE);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+            compactor.shutdown();
+            compactor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LevelIndex index(int level) {
+        LevelIndex index = levels.get(level);
+        return index != null ? index : LevelIndex.EMPTY;
+    }
+
+    private void writeLoop() {
+        List<RunRecord> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            frames.reset();
+            int runs = 0;
+            for (RunRecord run : batch) {
+                if (run == CLOSE) {
+                    closing = true;
+                } else {
+                    appendFrame(run);
+                    runs++;
+                }
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(frames.array(), 0, frames.size());
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+                // One sync per batch instead of one per run
+                segment.force(false);
+                segmentSize += frames.size();
+            } catch (IOException e) {
+                failure = e;
+                discardPartialWrite();
+            }
+            for (RunRecord run : batch) {
+                if (run != CLOSE) {
+                    levels.put(run.getLevel(), index(run.getLevel()).with(run));
+                }
+            }
+            segmentRecords += runs;
+            if (segmentRecords >= SEGMENT_RECORDS && !closing) {
+                rollSegment();
+            }
+            synchronized (progress) {
+                written += runs;
+                progress.notifyAll();
+            }
+            batch.clear();
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // [length][run][crc32 of run]
+    private void appendFrame(RunRecord run) {
+        int start = frames.size();
+        DataOutputStream out = new DataOutputStream(frames);
+        try {
+            out.writeInt(0);
+            run.write(out);
+            int length = frames.size() - start - 4;
+            crc.reset();
+            crc.update(frames.array(), start + 4, length);
+            out.writeInt((int) crc.getValue());
+            frames.putInt(start, length);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // A torn frame left by a failed write would hide every run appended after it when replayed
+    private void discardPartialWrite() {
+        try {
+            segment.truncate(segmentSize);
+        } catch (IOException e) {
+            // Replay cuts a segment off at its first bad frame, so the torn one is left at the end of its own
+            rollSegment();
+        }
+    }
+
+    private void rollSegment() {
+        try {
+            segment.close();
+            segmentId++;
+            segment = openSegment(segmentId);
+            segmentRecords = 0;
+            segmentSize = 0;
+            // Only this thread updates the indexes, so the copy matches exactly the closed segments
+            scheduleCompaction(new HashMap<>(levels), segmentId);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void scheduleCompaction(Map<Integer, LevelIndex> state, long firstSegment) {
+        compactor.execute(() -> {
+            try {
+                writeSnapshot(state, firstSegment);
+                for (long id : listSegments(directory)) {
+                    if (id < firstSegment) {
+                        Files.deleteIfExists(segmentFile(directory, id).toPath());
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        });
+    }
+
+    private void writeSnapshot(Map<Integer, LevelIndex> state, long firstSegment) throws IOException {
+        File snapshot = new File(directory, SNAPSHOT);
+        File temporary = new File(directory, SNAPSHOT + ".tmp");
+        FileOutputStream stream = new FileOutputStream(temporary);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(firstSegment);
+            out.writeInt(state.size());
+            for (Map.Entry<Integer, LevelIndex> entry : state.entrySet()) {
+                LevelIndex index = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeInt(index.runs);
+                out.writeInt(index.wins);
+                out.writeInt(index.fastest.length);
+                for (RunRecord run : index.fastest) {
+                    run.write(out);
+                }
+            }
+            // On disk before it replaces the old snapshot, which the caller then deletes segments for
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    // Makes the rename durable where the platform allows opening a directory
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened this way on every platform, Windows among them
+        }
+    }
+
+    // Returns the first segment not already folded into the snapshot
+    private static long readSnapshot(File file, Map<Integer, LevelIndex> levels) throws IOException {
+        if (!file.isFile()) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a run database snapshot: " + file);
+            }
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported run database version " + version + ": " + file);
+            }
+            long firstSegment = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int level = in.readInt();
+                int runs = in.readInt();
+                int wins = in.readInt();
+                int fastestCount = in.readInt();
+                if (fastestCount < 0 || fastestCount > LEADERBOARD_SIZE) {
+                    throw new IOException("Corrupt run database snapshot: " + file);
+                }
+                RunRecord[] fastest = new RunRecord[fastestCount];
+                for (int k = 0; k < fastestCount; k++) {
+                    fastest[k] = RunRecord.read(in);
+                }
+                levels.put(level, new LevelIndex(runs, wins, fastest));
+            }
+            return firstSegment;
+        }
+    }
+
+    private static void replay(File file, Map<Integer, LevelIndex> levels) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        CRC32 crc = new CRC32();
+        int complete = 0;
+        while (buffer.remaining() >= 8) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || buffer.remaining() < length + 4) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.array(), start + 4, length);
+            if ((int) crc.getValue() != buffer.getInt(start + 4 + length)) {
+                break;
+            }
+            RunRecord run = RunRecord.read(new DataInputStream(new ByteArrayInputStream(buffer.array(), start + 4, length)));
+            LevelIndex index = levels.get(run.getLevel());
+            levels.put(run.getLevel(), (index != null ? index : LevelIndex.EMPTY).with(run));
+            buffer.position(start + 4 + length + 4);
+            complete = buffer.position();
+        }
+        if (complete < buffer.limit()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            }
+        }
+    }
+
+    private FileChannel openSegment(long id) throws IOException {
+        return FileChannel.open(segmentFile(directory, id).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static File segmentFile(File directory, long id) {
+        return new File(directory, SEGMENT_PREFIX + id + SEGMENT_EXTENSION);
+    }
+
+    private static long[] listSegments(File directory) {
+        String[] names = directory.list();
+        if (names == null) {
+            return new long[0];
+        }
+        long[] ids = new long[names.length];
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION)) {
+                try {
+                    long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+                    ids[count++] = id;
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        long[] segments = Arrays.copyOf(ids, count);
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    // Exposes the backing array so frames can be checksummed and patched in place
+    private static final class FrameBuffer extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+
+        void putInt(int offset, int value) {
+            buf[offset] = (byte) (value >>> 24);
+            buf[offset + 1] = (byte) (value >>> 16);
+            buf[offset + 2] = (byte) (value >>> 8);
+            buf[offset + 3] = (byte) value;
+        }
+    }
+}
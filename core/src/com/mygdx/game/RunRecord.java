@@ -0,0 +1,101 @@
+package com.mygdx.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+
+/**
+ * One finished run, won or lost, as stored by {@link RunDatabase}.
+ */
+public final class RunRecord {
+    // Leaderboard order: fastest first, earlier runs win ties
+    static final Comparator<RunRecord> FASTEST_FIRST = (a, b) -> {
+        int byTime = Float.compare(a.elapsedTime, b.elapsedTime);
+        return byTime != 0 ? byTime : Long.compare(a.timestamp, b.timestamp);
+    };
+
+    private final long timestamp;
+    private final int level;
+    private final Simulation.Outcome outcome;
+    private final String zeppelin;
+    private final float elapsedTime;
+    private final float remainingTime;
+    private final float pathLength;
+    private final long seed;
+
+    public RunRecord(long timestamp, int level, Simulation.Outcome outcome, String zeppelin,
+                     float elapsedTime, float remainingTime, float pathLength, long seed) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.outcome = outcome;
+        this.zeppelin = zeppelin;
+        this.elapsedTime = elapsedTime;
+        this.remainingTime = remainingTime;
+        this.pathLength = pathLength;
+        this.seed = seed;
+    }
+
+    public static RunRecord of(Simulation simulation, String zeppelin) {
+        return new RunRecord(System.currentTimeMillis(), simulation.getLevel(), simulation.getOutcome(), zeppelin,
+                simulation.getElapsedTime(), simulation.getRemainingTime(), simulation.getPathLength(), simulation.getSeed());
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Simulation.Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isWin() {
+        return outcome == Simulation.Outcome.ARRIVED;
+    }
+
+    public String getZeppelin() {
+        return zeppelin;
+    }
+
+    public float getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public float getRemainingTime() {
+        return remainingTime;
+    }
+
+    public float getPathLength() {
+        return pathLength;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeLong(timestamp);
+        out.writeInt(level);
+        out.writeByte(outcome.ordinal());
+        out.writeUTF(zeppelin);
+        out.writeFloat(elapsedTime);
+        out.writeFloat(remainingTime);
+        out.writeFloat(pathLength);
+        out.writeLong(seed);
+    }
+
+    static RunRecord read(DataInput in) throws IOException {
+        long timestamp = in.readLong();
+        int level = in.readInt();
+        int outcome = in.readUnsignedByte();
+        if (outcome >= Simulation.Outcome.values().length) {
+            throw new IOException("Unknown run outcome " + outcome);
+        }
+        return new RunRecord(timestamp, level, Simulation.Outcome.values()[outcome], in.readUTF(),
+                in.readFloat(), in.readFloat(), in.readFloat(), in.readLong());
+    }
+}
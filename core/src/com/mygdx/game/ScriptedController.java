@@ -0,0 +1,45 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Flies straight for the destination: holds the speed needed to arrive before the timer runs out
+ * and corrects the altitude whenever it drifts outside a small dead band.
+ */
+public class ScriptedController implements SimulationController {
+    private static final float ALTITUDE_DEAD_BAND = 4f;
+    private static final float SPEED_MARGIN = 1.25f;
+
+    @Override
+    public int nextInput(Simulation simulation) {
+        Player player = simulation.getPlayer();
+        Vector2 destination = simulation.getDestination();
+        return steer(player.getX(), player.getY(), player.getSpeed(), player.hasGameStarted(),
+                simulation.getRemainingTime(), destination.x, destination.y);
+    }
+
+    /**
+     * The same decision from plain state, for clients that only see snapshots of the simulation.
+     */
+    public static int steer(float x, float y, float speed, boolean started, float remainingTime,
+                            float destinationX, float destinationY) {
+        int input = PlayerInput.NONE;
+
+        float distanceX = x - destinationX;
+        float remaining = Math.max(1f, remainingTime);
+        float wantedSpeed = distanceX / remaining * SPEED_MARGIN;
+        if (!started || speed < wantedSpeed) {
+            input |= PlayerInput.ACCELERATE;
+        } else if (speed > wantedSpeed + 1) {
+            input |= PlayerInput.DECELERATE;
+        }
+
+        float distanceY = destinationY - y;
+        if (distanceY > ALTITUDE_DEAD_BAND) {
+            input |= PlayerInput.UP;
+        } else if (distanceY < -ALTITUDE_DEAD_BAND) {
+            input |= PlayerInput.DOWN;
+        }
+        return input;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Game rules for one level without any windowing, audio or rendering, so they can run headless.
+ */
+public class Simulation {
+    public enum Outcome {
+        RUNNING,
+        ARRIVED,
+        TIMED_OUT,
+        OUT_OF_BOUNDS,
+        // Appended last; run records store the ordinal
+        NO_FLY_ZONE
+    }
+
+    public static final float MAX_GAME_TIME = 60f;
+    public static final float WORLD_WIDTH = 800;
+    public static final float WORLD_HEIGHT = 600;
+    private static final float SPEED_CHANGE_RATE = 6f;
+
+    private final LevelLayout layout;
+    private final Player player;
+    private final EnvironmentalManager environment;
+    private final Vector2 destination;
+    private float gameTime;
+    private float pathLength;
+    private Outcome outcome;
+
+    public Simulation(int level, long seed) {
+        this(level, seed, WORLD_WIDTH, WORLD_HEIGHT);
+    }
+
+    public Simulation(int level, long seed, float fieldWidth, float fieldHeight) {
+        this(LevelLayout.generate(level, seed), fieldWidth, fieldHeight);
+    }
+
+    public Simulation(LevelLayout layout, float fieldWidth, float fieldHeight) {
+        this(layout, WindField.columnsFromSystemProperties(), fieldWidth, fieldHeight);
+    }
+
+    public Simulation(LevelLayout layout, int windColumns, float fieldWidth, float fieldHeight) {
+        this(layout, layout.getSeed(), windColumns, fieldWidth, fieldHeight);
+    }
+
+    /**
+     * Weather drawn from its own seed instead of the layout's, for batches of runs over one shared
+     * layout. {@link #getSeed()} still names the layout, so such runs cannot be recorded or replayed.
+     */
+    Simulation(LevelLayout layout, long weatherSeed, int windColumns, float fieldWidth, float fieldHeight) {
+        this.layout = layout;
+        this.player = new Player(layout.getStartX(), layout.getStartY());
+        this.environment = new EnvironmentalManager(layout, weatherSeed, windColumns, fieldWidth, fieldHeight);
+        this.destination = new Vector2(layout.getDestinationX(), layout.getDestinationY());
+        this.gameTime = MAX_GAME_TIME;
+        this.outcome = Outcome.RUNNING;
+    }
+
+    public Outcome step(float delta, int input) {
+        if (PlayerInput.isSet(input, PlayerInput.RESTART)) {
+            restart();
+            return outcome;
+        }
+        if (outcome != Outcome.RUNNING) {
+            return outcome;
+        }
+
+        if (PlayerInput.isSet(input, PlayerInput.ACCELERATE)) {
+            player.startMoving();
+            player.adjustSpeed(SPEED_CHANGE_RATE * delta);
+        }
+        if (PlayerInput.isSet(input, PlayerInput.DECELERATE)) {
+            player.adjustSpeed(-SPEED_CHANGE_RATE * delta);
+        }
+        if (PlayerInput.isSet(input, PlayerInput.UP)) {
+            player.moveUp(delta);
+        }
+        if (PlayerInput.isSet(input, PlayerInput.DOWN)) {
+            player.moveDown(delta);
+        }
+
+        if (player.hasGameStarted()) {
+            gameTime -= delta;
+        }
+        float startX = player.getX();
+        float startY = player.getY();
+        player.update(delta);
+        pathLength += Vector2.dst(startX, startY, player.getX(), player.getY());
+        environment.update(player, delta);
+
+        outcome = evaluateOutcome();
+        return outcome;
+    }
+
+    private Outcome evaluateOutcome() {
+        boolean arrived = player.isAtEndpoint(destination);
+        if (gameTime <= 0 && !arrived) {
+            return Outcome.TIMED_OUT;
+        }
+        if (arrived) {
+            return Outcome.ARRIVED;
+        }
+        if (player.isOutOfBounds(0)) {
+            return Outcome.OUT_OF_BOUNDS;
+        }
+        if (layout.isInNoFlyZone(player.getX(), player.getY(), EnvironmentalManager.ZEPPELIN_WIDTH, EnvironmentalManager.ZEPPELIN_HEIGHT)) {
+            return Outcome.NO_FLY_ZONE;
+        }
+        return Outcome.RUNNING;
+    }
+
+    public void restart() {
+        player.reset(layout.getStartX(), layout.getStartY());
+        gameTime = MAX_GAME_TIME;
+        pathLength = 0;
+        outcome = Outcome.RUNNING;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public EnvironmentalManager getEnvironment() {
+        return environment;
+    }
+
+    public Vector2 getDestination() {
+        return destination;
+    }
+
+    public float getRemainingTime() {
+        return gameTime;
+    }
+
+    public float getElapsedTime() {
+        return MAX_GAME_TIME - gameTime;
+    }
+
+    // Distance the zeppelin has flown so far, in pixels
+    public float getPathLength() {
+        return pathLength;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public LevelLayout getLayout() {
+        return layout;
+    }
+
+    public int getLevel() {
+        return layout.getLevel();
+    }
+
+    public long getSeed() {
+        return layout.getSeed();
+    }
+}
@@ -0,0 +1,57 @@
+package com.mygdx.game;
+
+/**
+ * Turns variable frame deltas into a whole number of fixed simulation steps. Time that does not
+ * fill a step is carried over and exposed as an interpolation factor for rendering.
+ */
+public class SimulationClock {
+    public static final int DEFAULT_TICK_RATE = 60;
+    public static final int DEFAULT_MAX_STEPS = 5;
+
+    private final int tickRate;
+    private final float step;
+    private final int maxSteps;
+    private float accumulator;
+
+    public SimulationClock() {
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_STEPS);
+    }
+
+    public SimulationClock(int tickRate, int maxSteps) {
+        if (tickRate <= 0 || maxSteps <= 0) {
+            throw new IllegalArgumentException("tickRate and maxSteps must be positive");
+        }
+        this.tickRate = tickRate;
+        this.step = 1f / tickRate;
+        this.maxSteps = maxSteps;
+    }
+
+    public int advance(float frameDelta) {
+        accumulator += Math.max(0, frameDelta);
+        int steps = (int) (accumulator / step);
+        if (steps > maxSteps) {
+            // The display cannot keep up; drop the backlog instead of spiralling further behind
+            steps = maxSteps;
+            accumulator = 0;
+        } else {
+            accumulator -= steps * step;
+        }
+        return steps;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public float getStep() {
+        return step;
+    }
+
+    public float getAlpha() {
+        return Math.min(1f, accumulator / step);
+    }
+
+    public void reset() {
+        accumulator = 0;
+    }
+}
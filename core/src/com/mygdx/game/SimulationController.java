@@ -0,0 +1,8 @@
+package com.mygdx.game;
+
+/**
+ * Chooses the held keys for the next simulation step, standing in for a player at the keyboard.
+ */
+public interface SimulationController {
+    int nextInput(Simulation simulation);
+}
@@ -0,0 +1,73 @@
+package com.mygdx.game;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Turns the map image into a {@link CollisionMask} of land cells at build time, so the game never
+ * decodes the image to ask what lies under the zeppelin. The image is stretched over the world the
+ * way it is drawn, and a cell is land when most of the pixels under it are not sea.
+ *
+ * Usage: TerrainMaskBaker mapImage outputFile [cellSize]
+ */
+public class TerrainMaskBaker {
+    public static void main(String[] args) throws IOException {
+        File image = new File(args.length > 0 ? args[0] : "assets/images/map1.png");
+        File output = new File(args.length > 1 ? args[1] : "core/res/terrain/map1.mask");
+        float cellSize = args.length > 2 ? Float.parseFloat(args[2]) : LevelLayout.MASK_CELL;
+
+        CollisionMask land = bake(ImageIO.read(image), cellSize);
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+            land.write(out);
+        }
+        System.out.println("Baked " + land.getColumns() + "x" + land.getRows() + " cells from " + image + " into " + output);
+    }
+
+    public static CollisionMask bake(BufferedImage image, float cellSize) {
+        int columns = (int) Math.ceil(Simulation.WORLD_WIDTH / cellSize);
+        int rows = (int) Math.ceil(Simulation.WORLD_HEIGHT / cellSize);
+        CollisionMask land = new CollisionMask(columns, rows, cellSize);
+        float pixelsPerUnitX = image.getWidth() / Simulation.WORLD_WIDTH;
+        float pixelsPerUnitY = image.getHeight() / Simulation.WORLD_HEIGHT;
+        for (int row = 0; row < rows; row++) {
+            // World y grows upwards, image rows downwards
+            int top = Math.max(0, (int) (image.getHeight() - (row + 1) * cellSize * pixelsPerUnitY));
+            int bottom = Math.max(top + 1, Math.min(image.getHeight(), (int) (image.getHeight() - row * cellSize * pixelsPerUnitY)));
+            for (int column = 0; column < columns; column++) {
+                int left = (int) (column * cellSize * pixelsPerUnitX);
+                int right = Math.max(left + 1, Math.min(image.getWidth(), (int) ((column + 1) * cellSize * pixelsPerUnitX)));
+                int sea = 0;
+                int pixels = 0;
+                for (int y = top; y < bottom; y++) {
+                    for (int x = left; x < right && x < image.getWidth(); x++) {
+                        pixels++;
+                        if (isSea(image.getRGB(x, y))) {
+                            sea++;
+                        }
+                    }
+                }
+                if (pixels > 0 && sea * 2 < pixels) {
+                    land.set(column, row);
+                }
+            }
+        }
+        return land;
+    }
+
+    // The sea is a saturated light blue; roads and borders are greyer, fields and labels greener or darker
+    private static boolean isSea(int argb) {
+        int red = argb >> 16 & 0xFF;
+        int green = argb >> 8 & 0xFF;
+        int blue = argb & 0xFF;
+        return blue - red > 80 && green > 195;
+    }
+}
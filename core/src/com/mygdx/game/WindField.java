@@ -0,0 +1,419 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * How the wind departs from the level's wind at each point: coherent noise carried along by the
+ * prevailing wind, plus westerlies that pick up along the coast. The field lives on a coarse grid
+ * and is sampled bilinearly.
+ *
+ * A new generation of the grid is published every {@link #PERIOD} seconds of simulation time.
+ * Each generation is a pure function of the seed and its index, so the worker and the simulation
+ * thread compute identical numbers: the worker fills the back buffer while the front one is being
+ * sampled, and the two swap at the period boundary. If the worker is late the simulation thread
+ * computes the generation itself instead of waiting, which keeps replays exact either way.
+ */
+public class WindField {
+    public static final int DEFAULT_COLUMNS = 32;
+    static final float PERIOD = 0.5f;
+    // World units per noise cell; fronts are a few hundred units across
+    private static final float NOISE_SIZE = 160;
+    // Noise cells per second the pattern changes by, on top of being carried along
+    private static final float EVOLUTION = 0.1f;
+    // How far one unit of wind carries the pattern per second, as it carries the clouds
+    private static final float ADVECTION = 20;
+    private static final float STRENGTH = 0.25f;
+    // Fronts mostly push the zeppelin along its course rather than up and down
+    private static final float VERTICAL_SHARE = 0.4f;
+    private static final float COAST_WESTERLY = 0.2f;
+    // Levels until the field reaches full strength, as the prevailing wind grows with the level
+    private static final int RAMP_LEVELS = 5;
+    private static final float COAST_RADIUS = 30;
+    private static final long CHANNEL_Y = 0x632BE59BD9B4E019L;
+
+    private final long seed;
+    private final int columns;
+    private final int rows;
+    private final float spacingX;
+    private final float spacingY;
+    private final float strength;
+    private final float westerly;
+    private final float advectX;
+    private final float advectY;
+    private final float[] coast;
+    // The worker and the simulation thread can both be computing a generation, so each has its own
+    private final Lattice inlineLattice;
+    private final Lattice workLattice;
+    private float[] frontX;
+    private float[] frontY;
+    private float[] backX;
+    private float[] backY;
+    private float[] spareX;
+    private float[] spareY;
+    private Executor executor = Runnable::run;
+    private double time;
+    private int generation;
+    // The back buffer belongs to the worker from submitting a generation until it is ready
+    private int submitted;
+    private volatile int ready;
+    private int inlineGenerations;
+    // Reused for every generation, so handing one to the worker allocates nothing
+    private final Runnable worker = this::computeSubmitted;
+    private int workGeneration;
+    private float[] workX;
+    private float[] workY;
+
+    /**
+     * A grid of the given number of columns over the field, with rows to keep the cells square.
+     */
+    public WindField(LevelLayout layout, long seed, int columns, float fieldWidth, float fieldHeight) {
+        this.seed = seed;
+        this.columns = Math.max(2, columns);
+        this.rows = Math.max(2, Math.round((this.columns - 1) * fieldHeight / fieldWidth) + 1);
+        this.spacingX = fieldWidth / (this.columns - 1);
+        this.spacingY = fieldHeight / (rows - 1);
+        float ramp = Math.min(1f, layout.getLevel() / (float) RAMP_LEVELS);
+        this.strength = STRENGTH * layout.getWindVariability() * ramp;
+        this.westerly = COAST_WESTERLY * ramp;
+        this.advectX = layout.getPrevailingWindX() * ADVECTION;
+        this.advectY = layout.getPrevailingWindY() * ADVECTION;
+        int nodes = this.columns * rows;
+        this.coast = new float[nodes];
+        this.frontX = new float[nodes];
+        this.frontY = new float[nodes];
+        this.backX = new float[nodes];
+        this.backY = new float[nodes];
+        this.spareX = new float[nodes];
+        this.spareY = new float[nodes];
+        this.inlineLattice = new Lattice(this.columns, rows);
+        this.workLattice = new Lattice(this.columns, rows);
+
+        CollisionMask land = LevelLayout.getLand();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < this.columns; column++) {
+                coast[row * this.columns + column] = coastWeight(land, column * spacingX, row * spacingY);
+            }
+        }
+        compute(0, frontX, frontY, inlineLattice);
+        submitted = ready = 0;
+        requestAhead();
+    }
+
+    // -Dzeppelin.windColumns=N trades the field's detail against the time spent computing it
+    public static int columnsFromSystemProperties() {
+        return Integer.getInteger("zeppelin.windColumns", DEFAULT_COLUMNS);
+    }
+
+    /**
+     * Where later generations are computed. The default runs them on the simulation thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void advance(float delta) {
+        time += delta;
+        while (time >= (generation + 1) * (double) PERIOD) {
+            publishNext();
+        }
+    }
+
+    public Vector2 sample(float x, float y, Vector2 out) {
+        return out.set(sampleX(x, y), sampleY(x, y));
+    }
+
+    public float sampleX(float x, float y) {
+        return bilinear(frontX, columns, rows, spacingX, spacingY, x, y);
+    }
+
+    public float sampleY(float x, float y) {
+        return bilinear(frontY, columns, rows, spacingX, spacingY, x, y);
+    }
+
+    /**
+     * Replaces each point from one index up to another with the wind there, both components found
+     * from one lookup of the point's cell.
+     */
+    public void sample(float[] x, float[] y, int from, int to) {
+        float[] valuesX = frontX;
+        float[] valuesY = frontY;
+        for (int i = from; i < to; i++) {
+            float u = clamp(x[i] / spacingX, columns - 1);
+            float v = clamp(y[i] / spacingY, rows - 1);
+            int column = Math.min(columns - 2, (int) u);
+            int row = Math.min(rows - 2, (int) v);
+            int node = row * columns + column;
+            x[i] = interpolate(valuesX, node, columns, u - column, v - row);
+            y[i] = interpolate(valuesY, node, columns, u - column, v - row);
+        }
+    }
+
+    /**
+     * A copy of the generation being sampled now, for threads that must not see the buffers swap.
+     */
+    public Grid copyGrid() {
+        return new Grid(frontX.clone(), frontY.clone(), columns, rows, spacingX, spacingY);
+    }
+
+    /**
+     * The most either component of a sample can reach: noise at full strength plus the westerly on
+     * the coast. The vertical component stays below it.
+     */
+    public float getMaxSpeed() {
+        return strength + westerly;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // Generations the worker did not have ready in time
+    public int getInlineGenerations() {
+        return inlineGenerations;
+    }
+
+    private void publishNext() {
+        int next = generation + 1;
+        if (ready == next) {
+            float[] swapX = frontX;
+            float[] swapY = frontY;
+            frontX = backX;
+            frontY = backY;
+            backX = swapX;
+            backY = swapY;
+        } else {
+            compute(next, spareX, spareY, inlineLattice);
+            float[] swapX = frontX;
+            float[] swapY = frontY;
+            frontX = spareX;
+            frontY = spareY;
+            spareX = swapX;
+            spareY = swapY;
+            inlineGenerations++;
+        }
+        generation = next;
+        requestAhead();
+    }
+
+    private void requestAhead() {
+        int target = generation + 1;
+        // A worker still busy with a generation that was overtaken keeps the back buffer until it is done
+        if (ready != submitted || submitted >= target) {
+            return;
+        }
+        workGeneration = target;
+        workX = backX;
+        workY = backY;
+        try {
+            executor.execute(worker);
+            submitted = target;
+        } catch (RejectedExecutionException e) {
+            // Still busy with another field's generation; this one is computed inline when due
+        }
+    }
+
+    private void computeSubmitted() {
+        compute(workGeneration, workX, workY, workLattice);
+        ready = workGeneration;
+    }
+
+    private void compute(int generation, float[] outX, float[] outY, Lattice lattice) {
+        float t = generation * PERIOD;
+        for (int column = 0; column < columns; column++) {
+            lattice.setX(column, (column * spacingX - advectX * t) / NOISE_SIZE);
+        }
+        for (int row = 0; row < rows; row++) {
+            lattice.setY(row, (row * spacingY - advectY * t) / NOISE_SIZE);
+        }
+        lattice.fill(seed, seed ^ CHANNEL_Y, t * EVOLUTION);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int node = row * columns + column;
+                outX[node] = strength * lattice.noise(0, column, row) + westerly * coast[node];
+                outY[node] = strength * VERTICAL_SHARE * lattice.noise(1, column, row);
+            }
+        }
+    }
+
+    private static float bilinear(float[] values, int columns, int rows, float spacingX, float spacingY, float x, float y) {
+        float u = clamp(x / spacingX, columns - 1);
+        float v = clamp(y / spacingY, rows - 1);
+        int column = Math.min(columns - 2, (int) u);
+        int row = Math.min(rows - 2, (int) v);
+        return interpolate(values, row * columns + column, columns, u - column, v - row);
+    }
+
+    // Into [0, max]; the same as Math.max(0, Math.min(max, value)) for every value a sample can take
+    private static float clamp(float value, float max) {
+        return value > 0 ? (value < max ? value : max) : 0;
+    }
+
+    private static float interpolate(float[] values, int node, int columns, float fx, float fy) {
+        float bottom = values[node] + (values[node + 1] - values[node]) * fx;
+        float top = values[node + columns] + (values[node + columns + 1] - values[node + columns]) * fx;
+        return bottom + (top - bottom) * fy;
+    }
+
+    // Highest where land and sea meet in equal parts around the point
+    private static float coastWeight(CollisionMask land, float x, float y) {
+        float cell = land.getCellSize();
+        int firstColumn = Math.max(0, (int) ((x - COAST_RADIUS) / cell));
+        int lastColumn = Math.min(land.getColumns() - 1, (int) ((x + COAST_RADIUS) / cell));
+        int firstRow = Math.max(0, (int) ((y - COAST_RADIUS) / cell));
+        int lastRow = Math.min(land.getRows() - 1, (int) ((y + COAST_RADIUS) / cell));
+        if (firstColumn > lastColumn || firstRow > lastRow) {
+            return 0;
+        }
+        int landCells = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = land.nextSet(row, firstColumn); column <= lastColumn; ) {
+                int end = Math.min(lastColumn + 1, land.nextClear(row, column));
+                landCells += end - column;
+                column = land.nextSet(row, end);
+            }
+        }
+        float share = landCells / (float) ((lastColumn - firstColumn + 1) * (lastRow - firstRow + 1));
+        return 4 * share * (1 - share);
+    }
+
+    private static float lattice(long seed, int x, int y, int z) {
+        long h = seed ^ x * 0x9E3779B97F4A7C15L ^ y * 0xC2B2AE3D27D4EB4FL ^ z * 0x165667B19E3779F9L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 40) / (float) (1 << 23) - 1;
+    }
+
+    private static float smooth(float t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+
+    /**
+     * Value noise in [-1, 1], smooth in all three coordinates, for the nodes of one generation. The
+     * nodes all fall in the same few lattice cells, so the corners of those are hashed once per
+     * generation and each node only interpolates between them.
+     */
+    private static final class Lattice {
+        private final int[] cellX;
+        private final float[] weightX;
+        private final int[] cellY;
+        private final float[] weightY;
+        // Corner values by channel, then z, y and x
+        private float[] values = new float[0];
+        private int firstX;
+        private int firstY;
+        private int width;
+        private int height;
+        private float weightZ;
+
+        Lattice(int columns, int rows) {
+            this.cellX = new int[columns];
+            this.weightX = new float[columns];
+            this.cellY = new int[rows];
+            this.weightY = new float[rows];
+        }
+
+        void setX(int column, float x) {
+            int x0 = (int) Math.floor(x);
+            cellX[column] = x0;
+            weightX[column] = smooth(x - x0);
+        }
+
+        void setY(int row, float y) {
+            int y0 = (int) Math.floor(y);
+            cellY[row] = y0;
+            weightY[row] = smooth(y - y0);
+        }
+
+        void fill(long seedX, long seedY, float z) {
+            int z0 = (int) Math.floor(z);
+            weightZ = smooth(z - z0);
+            firstX = min(cellX);
+            firstY = min(cellY);
+            width = max(cellX) - firstX + 2;
+            height = max(cellY) - firstY + 2;
+            if (values.length < 4 * width * height) {
+                values = new float[4 * width * height];
+            }
+            int i = 0;
+            for (int channel = 0; channel < 2; channel++) {
+                long seed = channel == 0 ? seedX : seedY;
+                for (int dz = 0; dz < 2; dz++) {
+                    for (int y = 0; y < height; y++) {
+                        for (int x = 0; x < width; x++) {
+                            values[i++] = lattice(seed, firstX + x, firstY + y, z0 + dz);
+                        }
+                    }
+                }
+            }
+        }
+
+        float noise(int channel, int column, int row) {
+            float fx = weightX[column];
+            float fy = weightY[row];
+            int near = ((2 * channel * height) + cellY[row] - firstY) * width + cellX[column] - firstX;
+            int far = near + height * width;
+            float nearValue = lerp(lerp(values[near], values[near + 1], fx),
+                    lerp(values[near + width], values[near + width + 1], fx), fy);
+            float farValue = lerp(lerp(values[far], values[far + 1], fx),
+                    lerp(values[far + width], values[far + width + 1], fx), fy);
+            return lerp(nearValue, farValue, weightZ);
+        }
+
+        private static int min(int[] values) {
+            int min = values[0];
+            for (int value : values) {
+                min = Math.min(min, value);
+            }
+            return min;
+        }
+
+        private static int max(int[] values) {
+            int max = values[0];
+            for (int value : values) {
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+    }
+
+    /**
+     * One generation of the field, frozen.
+     */
+    public static final class Grid {
+        private final float[] valuesX;
+        private final float[] valuesY;
+        private final int columns;
+        private final int rows;
+        private final float spacingX;
+        private final float spacingY;
+
+        private Grid(float[] valuesX, float[] valuesY, int columns, int rows, float spacingX, float spacingY) {
+            this.valuesX = valuesX;
+            this.valuesY = valuesY;
+            this.columns = columns;
+            this.rows = rows;
+            this.spacingX = spacingX;
+            this.spacingY = spacingY;
+        }
+
+        public float sampleX(float x, float y) {
+            return bilinear(valuesX, columns, rows, spacingX, spacingY, x, y);
+        }
+
+        public float sampleY(float x, float y) {
+            return bilinear(valuesY, columns, rows, spacingX, spacingY, x, y);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded schedule of target-wind changes and gusts. Events are generated ahead of time into a
+ * fixed ring of primitive arrays, so advancing the timeline only moves a cursor and the same seed
+ * always produces the same weather.
+ */
+public class WindTimeline {
+    private static final float WIND_MAX_SPEED = 8f;
+    private static final float MAX_WIND_CHANGE = 0.5f;
+    // Per-second event rates, matching the old per-frame probabilities at 60 frames per second
+    private static final float WIND_CHANGE_RATE = 0.3f;
+    private static final float GUST_RATE = 0.12f;
+    private static final int CAPACITY = 64;
+
+    private final SplittableRandom random;
+    private final float prevailingX;
+    private final float prevailingY;
+    private final float variability;
+    private final double[] eventTime = new double[CAPACITY];
+    private final float[] eventTargetX = new float[CAPACITY];
+    private final float[] eventTargetY = new float[CAPACITY];
+    private final Vector2 target = new Vector2();
+    private int head;
+    private int size;
+    private double time;
+    private double generatedUntil;
+    private float generatedTargetX;
+    private float generatedTargetY;
+
+    public WindTimeline(long seed) {
+        this(seed, 0, 0, 1);
+    }
+
+    /**
+     * A wind regime: changes settle around the prevailing wind, and the variability scales how far
+     * changes and gusts stray from it.
+     */
+    public WindTimeline(long seed, float prevailingX, float prevailingY, float variability) {
+        this.random = new SplittableRandom(seed);
+        this.prevailingX = prevailingX;
+        this.prevailingY = prevailingY;
+        this.variability = variability;
+        generatedTargetX = prevailingX + signedRandom(MAX_WIND_CHANGE * variability);
+        generatedTargetY = prevailingY + signedRandom(MAX_WIND_CHANGE * variability);
+        target.set(generatedTargetX, generatedTargetY).limit(WIND_MAX_SPEED);
+        fill();
+    }
+
+    /**
+     * Moves the timeline forward and returns how many wind changes or gusts took effect.
+     */
+    public int advance(float delta) {
+        time += delta;
+        int fired = 0;
+        while (size > 0 && eventTime[head] <= time) {
+            target.set(eventTargetX[head], eventTargetY[head]);
+            head = (head + 1) % CAPACITY;
+            size--;
+            fired++;
+        }
+        if (size < CAPACITY / 2) {
+            fill();
+        }
+        return fired;
+    }
+
+    public Vector2 getTarget() {
+        return target;
+    }
+
+    /**
+     * Copies the upcoming events, with times relative to now, and returns how many were copied.
+     */
+    public int forecast(float[] times, float[] targetsX, float[] targetsY) {
+        int events = Math.min(size, times.length);
+        for (int k = 0; k < events; k++) {
+            int index = (head + k) % CAPACITY;
+            times[k] = (float) (eventTime[index] - time);
+            targetsX[k] = eventTargetX[index];
+            targetsY[k] = eventTargetY[index];
+        }
+        return events;
+    }
+
+    private void fill() {
+        float totalRate = WIND_CHANGE_RATE + GUST_RATE;
+        while (size < CAPACITY) {
+            generatedUntil += -Math.log(1 - random.nextDouble()) / totalRate;
+            if (random.nextDouble() * totalRate < GUST_RATE) {
+                generatedTargetX += signedRandom(MAX_WIND_CHANGE * variability);
+                generatedTargetY += signedRandom(MAX_WIND_CHANGE * variability);
+            } else {
+                generatedTargetX = prevailingX + signedRandom(MAX_WIND_CHANGE / 2 * variability);
+                generatedTargetY = prevailingY + signedRandom(MAX_WIND_CHANGE / 2 * variability);
+            }
+            float length2 = generatedTargetX * generatedTargetX + generatedTargetY * generatedTargetY;
+            if (length2 > WIND_MAX_SPEED * WIND_MAX_SPEED) {
+                float scale = WIND_MAX_SPEED / (float) Math.sqrt(length2);
+                generatedTargetX *= scale;
+                generatedTargetY *= scale;
+            }
+
+            int tail = (head + size) % CAPACITY;
+            eventTime[tail] = generatedUntil;
+            eventTargetX[tail] = generatedTargetX;
+            eventTargetY[tail] = generatedTargetY;
+            size++;
+        }
+    }
+
+    private float signedRandom(float limit) {
+        return (float) (random.nextDouble() - 0.5) * 2 * limit;
+    }
+}
@@ -2,10 +2,8 @@ package com.mygdx.game;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
@@ -13,19 +11,34 @@ import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 
+import java.util.List;
+import java.util.Locale;
+
 public class ZeppelinSelection implements Screen {
+    static final String ZEPPELIN_L19 = "images/Zepplin L19.png";
+    static final String ZEPPELIN_L20 = "images/Zepplin L20.png";
+    private static final String INFO_BACKGROUND = "images/info-background.png";
+    private static final String HISTORY_BACKGROUND = "images/history-background.png";
+    private static final int LEADERBOARD_ROWS = 5;
+
     private final MyGdxGame game;
-    private final SpriteBatch batch;
-    private final AssetManager assetManager;
+    private final ResourceCache resources;
     private final Stage stage;
     private final Skin uiSkin;
+    private final Texture zeppelinTextureL19;
+    private final Texture zeppelinTextureL20;
+    private final Texture infoBackground;
+    private final Texture historyBackground;
 
-    public ZeppelinSelection(MyGdxGame game, SpriteBatch batch, AssetManager assetManager, Skin uiSkin) {
+    public ZeppelinSelection(MyGdxGame game, ResourceCache resources, Skin uiSkin) {
         this.game = game;
-        this.batch = batch;
-        this.assetManager = assetManager;
-        this.stage = new Stage(new ScreenViewport());
+        this.resources = resources;
+        this.stage = resources.track(new Stage(new ScreenViewport()), "selection stage");
         this.uiSkin = uiSkin;
+        this.zeppelinTextureL19 = resources.acquire(ZEPPELIN_L19, Texture.class);
+        this.zeppelinTextureL20 = resources.acquire(ZEPPELIN_L20, Texture.class);
+        this.infoBackground = resources.acquire(INFO_BACKGROUND, Texture.class);
+        this.historyBackground = resources.acquire(HISTORY_BACKGROUND, Texture.class);
 
         Gdx.input.setInputProcessor(stage);
         createSelectionScreen();
@@ -33,8 +46,6 @@ public class ZeppelinSelection implements Screen {
 
     private void createSelectionScreen() {
         stage.clear();
-        Texture zeppelinTextureL19 = assetManager.get("images/Zepplin L19.png", Texture.class);
-        Texture zeppelinTextureL20 = assetManager.get("images/Zepplin L20.png", Texture.class);
 
         ImageButton.ImageButtonStyle styleL19 = new ImageButton.ImageButtonStyle();
         styleL19.imageUp = new TextureRegionDrawable(zeppelinTextureL19);
@@ -53,14 +64,14 @@ public class ZeppelinSelection implements Screen {
         zeppelinButtonL19.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                game.setScreen(new GameScreen(game, batch, assetManager.get("images/map1.png", Texture.class), zeppelinTextureL19, uiSkin, assetManager, 1));
+                game.startLevel(ZEPPELIN_L19, 1);
             }
         });
 
         zeppelinButtonL20.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                game.setScreen(new GameScreen(game, batch, assetManager.get("images/map1.png", Texture.class), zeppelinTextureL20, uiSkin, assetManager, 1));
+                game.startLevel(ZEPPELIN_L20, 1);
             }
         });
 
@@ -71,7 +82,7 @@ public class ZeppelinSelection implements Screen {
         aboutButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                showBackground(assetManager.get("images/info-background.png", Texture.class));
+                showBackground(infoBackground);
             }
         });
 
@@ -79,7 +90,7 @@ public class ZeppelinSelection implements Screen {
         historyButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                showBackground(assetManager.get("images/history-background.png", Texture.class));
+                showBackground(historyBackground);
             }
         });
 
@@ -89,12 +100,39 @@ public class ZeppelinSelection implements Screen {
         table.add(titleLabel).colspan(2).padBottom(20).row();
         table.add(zeppelinButtonL19).size(300, 100).pad(10);
         table.add(zeppelinButtonL20).size(300, 100).pad(10).row();
+        RunDatabase runs = game.getRunDatabase();
+        if (runs != null) {
+            table.add(new Label(leaderboardText(runs, 1), uiSkin, "title")).colspan(2).padTop(10).row();
+        }
         table.add(aboutButton).colspan(2).padTop(20).size(300, 100).row();
         table.add(historyButton).colspan(2).padTop(20).size(300, 100);
 
         stage.addActor(table);
     }
 
+    // Every run starts at this level, so its fastest wins are the ones worth showing here
+    private static String leaderboardText(RunDatabase runs, int level) {
+        List<RunRecord> fastest = runs.getLeaderboard(level);
+        if (fastest.isEmpty()) {
+            return "No wins on level " + level + " yet";
+        }
+        StringBuilder text = new StringBuilder("Fastest on level ").append(level).append(':');
+        for (int i = 0; i < Math.min(LEADERBOARD_ROWS, fastest.size()); i++) {
+            RunRecord run = fastest.get(i);
+            text.append('\n').append(i + 1).append(". ")
+                    .append(String.format(Locale.ROOT, "%.1f s", run.getElapsedTime()))
+                    .append("  ").append(zeppelinName(run.getZeppelin()));
+        }
+        return text.toString();
+    }
+
+    // "images/Zepplin L19.png" -> "Zepplin L19"
+    private static String zeppelinName(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
     private void showBackground(Texture backgroundTexture) {
         stage.clear();
         Image backgroundImage = new Image(new TextureRegionDrawable(backgroundTexture));
@@ -145,6 +183,10 @@ public class ZeppelinSelection implements Screen {
 
     @Override
     public void dispose() {
-        stage.dispose();
+        resources.dispose(stage);
+        resources.release(ZEPPELIN_L19);
+        resources.release(ZEPPELIN_L20);
+        resources.release(INFO_BACKGROUND);
+        resources.release(HISTORY_BACKGROUND);
     }
 }
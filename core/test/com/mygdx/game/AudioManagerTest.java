@@ -0,0 +1,80 @@
+package com.mygdx.game;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The mixer's limits as the backend sees them: every voice the manager frees, stolen, stopped or
+ * played out, must also leave the backend.
+ */
+public class AudioManagerTest {
+    private CountingAudioBackend backend;
+    private AudioManager audio;
+
+    @Before
+    public void setUp() {
+        backend = new CountingAudioBackend();
+        audio = new AudioManager(backend, AudioManager.DEFAULT_VOICES);
+    }
+
+    @Test
+    public void cueCapStealsItsOldestVoice() {
+        assertTrue(audio.play(AudioManager.Cue.WIND, 1));
+        assertTrue(audio.play(AudioManager.Cue.WIND, 1));
+        assertTrue(audio.play(AudioManager.Cue.WIND, 1));
+        assertEquals(2, audio.getActiveVoices(AudioManager.Cue.WIND));
+        assertEquals(2, backend.getActiveVoices(AudioManager.Cue.WIND));
+        assertEquals(3, backend.getStartedVoices());
+
+        audio.play(AudioManager.Cue.GAME_OVER, 1);
+        audio.play(AudioManager.Cue.GAME_OVER, 1);
+        assertEquals(1, backend.getActiveVoices(AudioManager.Cue.GAME_OVER));
+        assertEquals(3, backend.getPeakVoices());
+    }
+
+    @Test
+    public void fullPoolStealsTheLowestPriority() {
+        audio = new AudioManager(backend, 2);
+        audio.loop(AudioManager.Cue.ENGINE, 1);
+        audio.play(AudioManager.Cue.WIND, 1);
+
+        assertTrue(audio.play(AudioManager.Cue.WIN, 1));
+        assertEquals(0, backend.getActiveVoices(AudioManager.Cue.WIND));
+        assertEquals(1, backend.getActiveVoices(AudioManager.Cue.ENGINE));
+        assertEquals(1, backend.getActiveVoices(AudioManager.Cue.WIN));
+
+        // Nothing left at or below the wind's priority
+        assertFalse(audio.play(AudioManager.Cue.WIND, 1));
+        assertEquals(2, backend.getActiveVoices());
+    }
+
+    @Test
+    public void fadeOutReleasesOnceSilent() {
+        audio.fadeTo(AudioManager.Cue.WIND, 0.5f);
+        audio.update(1);
+        audio.fadeOut(AudioManager.Cue.WIND);
+        audio.update(0.5f);
+        assertEquals(1, backend.getActiveVoices(AudioManager.Cue.WIND));
+
+        audio.update(0.5f);
+        assertEquals(0, audio.getActiveVoices(AudioManager.Cue.WIND));
+        assertEquals(0, backend.getActiveVoices(AudioManager.Cue.WIND));
+    }
+
+    @Test
+    public void playedOutOneShotsLeaveTheBackend() {
+        audio.play(AudioManager.Cue.GAME_OVER, 1);
+        audio.play(AudioManager.Cue.WIND, 1);
+        audio.update(AudioManager.Cue.GAME_OVER.duration + 0.1f);
+        assertEquals(0, backend.getActiveVoices(AudioManager.Cue.GAME_OVER));
+        assertEquals(1, backend.getActiveVoices());
+
+        audio.update(AudioManager.Cue.WIND.duration);
+        assertEquals(0, audio.getActiveVoices());
+        assertEquals(0, backend.getActiveVoices());
+    }
+}
@@ -0,0 +1,120 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A frame of the level submitted the way GameScreen.renderFrame does it: the map, the ghost and the
+ * zeppelin, then the clouds from the cached layer tiles, which are drawn with their own textures
+ * and blend function.
+ */
+public class GameplayAtlasTest {
+    // What packAtlas makes of the images after scaling them down: one 2048 page, padding 8
+    private static final String PACKED =
+            "gameplay.png\n"
+            + "size:2048,2048\n"
+            + "filter:MipMapLinearLinear,Linear\n"
+            + "repeat:none\n"
+            + "map1\nbounds:8,8,1577,785\n"
+            + "Zepplin L19\nbounds:1593,8,256,83\n"
+            + "Zepplin L20\nbounds:1593,99,256,36\n"
+            + "cloud\nbounds:8,801,512,260\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CloudField field;
+    private CloudLayerCache cache;
+    private RecordingBatch batch;
+
+    @Before
+    public void setUp() {
+        NullGL.install();
+        LevelLayout layout = LevelLayout.generate(3, 42L);
+        field = new CloudField(layout.getCloudAnchorsX(), layout.getCloudAnchorsY(), 42L, 100, 45,
+                Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+        cache = new CloudLayerCache();
+        cache.setField(field);
+        batch = new RecordingBatch();
+    }
+
+    @After
+    public void tearDown() {
+        cache.dispose();
+    }
+
+    @Test
+    public void packedFrameFlushesForTheLayersOnly() throws IOException {
+        GameplayAtlas atlas = new GameplayAtlas(null, loadPacked());
+        TextureRegion map = atlas.find("images/map1.png");
+        TextureRegion cloud = atlas.find("images/cloud.png");
+        TextureRegion zeppelin = atlas.find(ZeppelinSelection.ZEPPELIN_L19);
+        assertSame(map.getTexture(), cloud.getTexture());
+        assertSame(map.getTexture(), zeppelin.getTexture());
+
+        for (QualityGovernor.Tier tier : QualityGovernor.Tier.values()) {
+            field.setVisibleShare(tier.cloudShare);
+            drawFrame(map, zeppelin, cloud);
+            assertTrue(batch.getDrawCount() > 3);
+            // Map and zeppelins in one, then one per layer tile, the last when the blend function is restored
+            assertEquals(tier.name(), 1 + field.getLayerCount(), batch.getFlushes());
+        }
+    }
+
+    // Either zeppelin may be chosen, so both must share the page with the map and clouds
+    @Test
+    public void everyImageIsOnThePage() throws IOException {
+        GameplayAtlas atlas = new GameplayAtlas(null, loadPacked());
+        Texture page = atlas.find(GameplayAtlas.IMAGES[0]).getTexture();
+        for (String image : GameplayAtlas.IMAGES) {
+            assertSame(image, page, atlas.find(image).getTexture());
+        }
+    }
+
+    @Test
+    public void looseTexturesFlushOnceMore() {
+        TextureRegion map = new TextureRegion(NullGL.texture(1577, 785));
+        TextureRegion cloud = new TextureRegion(NullGL.texture(3399, 1724));
+        TextureRegion zeppelin = new TextureRegion(NullGL.texture(620, 201));
+
+        drawFrame(map, zeppelin, cloud);
+        assertEquals(2 + field.getLayerCount(), batch.getFlushes());
+    }
+
+    private TextureAtlas loadPacked() throws IOException {
+        FileHandle pack = new FileHandle(folder.newFile("gameplay.atlas"));
+        pack.writeString(PACKED, false);
+        TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(pack, pack.parent(), false);
+        for (TextureAtlas.TextureAtlasData.Page page : data.getPages()) {
+            page.texture = NullGL.texture((int) page.width, (int) page.height);
+        }
+        return new TextureAtlas(data);
+    }
+
+    private void drawFrame(TextureRegion map, TextureRegion zeppelin, TextureRegion cloud) {
+        cache.prepare(batch, cloud);
+        batch.reset();
+        batch.begin();
+        batch.draw(map, 0, 0, 800, 600);
+        batch.setColor(1, 1, 1, 0.35f);
+        batch.draw(zeppelin, 210, 290, 45, 25);
+        batch.setColor(Color.WHITE);
+        batch.draw(zeppelin, 200, 300, 45, 25);
+        cache.draw(batch, cloud, 0.5f);
+        batch.end();
+    }
+}
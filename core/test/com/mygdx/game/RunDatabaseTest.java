@@ -0,0 +1,68 @@
+package com.mygdx.game;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reopening the store after its snapshot has been compacted, and after the snapshot was damaged.
+ */
+public class RunDatabaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reopensFromTheSnapshot() throws Exception {
+        File directory = folder.newFolder("runs");
+        recordAndClose(directory, 3, 2);
+        // Opening folds the first segment into the snapshot
+        recordAndClose(directory, 2, 1);
+
+        RunDatabase database = RunDatabase.open(directory);
+        assertEquals(5, database.getRunCount(1));
+        assertEquals(3, database.getWinCount(1));
+        database.close();
+    }
+
+    @Test
+    public void unreadableSnapshotIsRebuiltFromTheSegments() throws Exception {
+        File directory = folder.newFolder("runs");
+        recordAndClose(directory, 3, 2);
+        recordAndClose(directory, 2, 1);
+        File snapshot = new File(directory, "runs.snapshot");
+        assertTrue(snapshot.isFile());
+        Files.write(snapshot.toPath(), new byte[] {1, 2, 3});
+
+        // The first three runs went with the snapshot; the segment written after it is still there
+        RunDatabase database = RunDatabase.open(directory);
+        assertEquals(2, database.getRunCount(1));
+        assertEquals(1, database.getWinCount(1));
+        assertEquals(1, database.getLeaderboard(1).size());
+        database.close();
+        assertNull(database.getFailure());
+
+        RunDatabase reopened = RunDatabase.open(directory);
+        assertEquals(2, reopened.getRunCount(1));
+        reopened.close();
+    }
+
+    private static void recordAndClose(File directory, int runs, int wins) throws IOException, InterruptedException {
+        RunDatabase database = RunDatabase.open(directory);
+        for (int i = 0; i < runs; i++) {
+            Simulation.Outcome outcome = i < wins ? Simulation.Outcome.ARRIVED : Simulation.Outcome.TIMED_OUT;
+            database.record(new RunRecord(i, 1, outcome, ZeppelinSelection.ZEPPELIN_L19, 30 + i, 60 - i, 900,
+                    LevelLayout.standardSeed(1)));
+        }
+        database.flush();
+        database.close();
+        assertNull(database.getFailure());
+    }
+}
@@ -0,0 +1,79 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * What GameScreen does every step of a level in flight, simulation and HUD text, once warmed up: it
+ * must allocate nothing on the game thread, the wind field generations it hands off included.
+ *
+ * The JIT allocates a little on the thread now and then while it recompiles a method, once per
+ * event rather than per step, so the steps are measured in windows and one window must come out
+ * clean. Anything the game itself allocated would show up in every window.
+ */
+public class SteadyStateAllocationTest {
+    private static final int LEVEL = 3;
+    private static final int WARM_STEPS = 600;
+    private static final int WINDOW_STEPS = 200;
+    private static final int WINDOWS = 8;
+
+    private HandoffThread windThread;
+
+    @Before
+    public void setUp() {
+        windThread = new HandoffThread("wind-field");
+    }
+
+    @After
+    public void tearDown() {
+        windThread.shutdown();
+    }
+
+    @Test
+    public void warmStepsAllocateNothing() {
+        AllocationTracker tracker = new AllocationTracker();
+        assumeTrue(tracker.isSupported());
+        Simulation simulation = new Simulation(LevelLayout.generate(LEVEL, LevelLayout.standardSeed(LEVEL)),
+                Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+        simulation.getEnvironment().getWindField().setExecutor(windThread);
+        SimulationController controller = new ScriptedController();
+        HudFormatter hud = new HudFormatter();
+        float step = 1f / SimulationClock.DEFAULT_TICK_RATE;
+
+        for (int i = 0; i < WARM_STEPS; i++) {
+            frame(simulation, controller, hud, step);
+        }
+        long[] windowBytes = new long[WINDOWS];
+        for (int window = 0; window < WINDOWS; window++) {
+            tracker.reset();
+            for (int i = 0; i < WINDOW_STEPS; i++) {
+                tracker.beginFrame();
+                frame(simulation, controller, hud, step);
+                tracker.endFrame();
+            }
+            assertEquals(Simulation.Outcome.RUNNING, simulation.getOutcome());
+            windowBytes[window] = tracker.getTotalBytes();
+            if (windowBytes[window] == 0) {
+                return;
+            }
+        }
+        fail("Every window allocated; bytes per window " + Arrays.toString(windowBytes));
+    }
+
+    private static void frame(Simulation simulation, SimulationController controller, HudFormatter hud, float step) {
+        simulation.step(step, controller.nextInput(simulation));
+        Vector2 wind = simulation.getEnvironment().getWind();
+        hud.updateSpeed(simulation.getPlayer().getSpeed());
+        hud.updateWind(wind.x, wind.y);
+        hud.updateTime(simulation.getRemainingTime());
+        hud.updateClouds(simulation.getEnvironment().getNumClouds());
+    }
+}
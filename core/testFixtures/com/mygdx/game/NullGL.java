@@ -0,0 +1,50 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.GLOnlyTextureData;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * A GL20, graphics and application that do nothing and answer zero, so tests and benchmarks can
+ * create textures and frame buffers to tell apart in a {@link RecordingBatch} without a GL context.
+ * Frame buffers are reported complete, since a status of zero would fail their creation.
+ */
+public final class NullGL {
+    private NullGL() {
+    }
+
+    public static void install() {
+        GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] {GL20.class},
+                (proxy, method, args) -> method.getName().equals("glCheckFramebufferStatus")
+                        ? GL20.GL_FRAMEBUFFER_COMPLETE : zero(method.getReturnType()));
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        // Textures ask it which extensions there are
+        Gdx.graphics = nothing(Graphics.class);
+        // Frame buffers are tracked per application
+        Gdx.app = nothing(Application.class);
+    }
+
+    // Only its size is real; nothing is uploaded
+    public static Texture texture(int width, int height) {
+        return new Texture(new GLOnlyTextureData(width, height, 0, GL20.GL_RGBA, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE));
+    }
+
+    private static <T> T nothing(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> zero(method.getReturnType())));
+    }
+
+    private static Object zero(Class<?> type) {
+        if (type == int.class) return 0;
+        if (type == boolean.class) return false;
+        if (type == float.class) return 0f;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
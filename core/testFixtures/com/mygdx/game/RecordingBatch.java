@@ -0,0 +1,305 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Batch stand-in that needs no GL context. It counts quads, texture switches and the flushes, each
+ * one a draw call, that a real SpriteBatch of the same size would make for them, and folds the
+ * coordinates into a checksum so the draw calls cannot be optimised away.
+ */
+public class RecordingBatch implements Batch {
+    // SpriteBatch's default size, in sprites
+    public static final int DEFAULT_SIZE = 1000;
+
+    private final int size;
+    private final Color color = new Color(Color.WHITE);
+    private final Matrix4 projection = new Matrix4();
+    private final Matrix4 transform = new Matrix4();
+    private Texture lastTexture;
+    private Texture batchTexture;
+    private boolean drawing;
+    private boolean blending = true;
+    private int blendSrcFunc = GL20.GL_SRC_ALPHA;
+    private int blendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
+    private int blendSrcFuncAlpha = GL20.GL_SRC_ALPHA;
+    private int blendDstFuncAlpha = GL20.GL_ONE_MINUS_SRC_ALPHA;
+    private ShaderProgram shader;
+    private int pending;
+    private int drawCount;
+    private int textureSwitches;
+    private int flushes;
+    private float checksum;
+
+    public RecordingBatch() {
+        this(DEFAULT_SIZE);
+    }
+
+    public RecordingBatch(int size) {
+        this.size = size;
+    }
+
+    // Clears the counts; render state such as the blend function carries over, as in a real batch
+    public void reset() {
+        lastTexture = null;
+        drawCount = 0;
+        textureSwitches = 0;
+        flushes = 0;
+        checksum = 0;
+    }
+
+    public int getDrawCount() {
+        return drawCount;
+    }
+
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
+    public int getFlushes() {
+        return flushes;
+    }
+
+    public float getChecksum() {
+        return checksum;
+    }
+
+    private void record(Texture texture, float x, float y) {
+        if (drawCount == 0 || texture != lastTexture) {
+            textureSwitches++;
+            lastTexture = texture;
+        }
+        if (texture != batchTexture) {
+            flush();
+            batchTexture = texture;
+        } else if (pending == size) {
+            flush();
+        }
+        pending++;
+        drawCount++;
+        checksum += x + y;
+    }
+
+    private static Texture textureOf(TextureRegion region) {
+        return region == null ? null : region.getTexture();
+    }
+
+    @Override
+    public void begin() {
+        drawing = true;
+    }
+
+    @Override
+    public void end() {
+        flush();
+        batchTexture = null;
+        drawing = false;
+    }
+
+    @Override
+    public void setColor(Color tint) {
+        color.set(tint);
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        color.set(r, g, b, a);
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public void setPackedColor(float packedColor) {
+        Color.abgr8888ToColor(color, packedColor);
+    }
+
+    @Override
+    public float getPackedColor() {
+        return color.toFloatBits();
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        record(texture, x, y);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        record(texture, x, y);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        record(texture, x, y);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+        record(texture, x, y);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        record(texture, x, y);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        record(texture, x, y);
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        record(texture, spriteVertices[offset], spriteVertices[offset + 1]);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        record(textureOf(region), x, y);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        record(textureOf(region), x, y);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+        record(textureOf(region), x, y);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+        record(textureOf(region), x, y);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        record(textureOf(region), transform.m02, transform.m12);
+    }
+
+    @Override
+    public void flush() {
+        if (pending > 0) {
+            flushes++;
+            pending = 0;
+        }
+    }
+
+    @Override
+    public void disableBlending() {
+        if (blending) {
+            flush();
+            blending = false;
+        }
+    }
+
+    @Override
+    public void enableBlending() {
+        if (!blending) {
+            flush();
+            blending = true;
+        }
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        setBlendFunctionSeparate(srcFunc, dstFunc, srcFunc, dstFunc);
+    }
+
+    // Only a change flushes, as in SpriteBatch
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+        if (blendSrcFunc == srcFuncColor && blendDstFunc == dstFuncColor
+                && blendSrcFuncAlpha == srcFuncAlpha && blendDstFuncAlpha == dstFuncAlpha) {
+            return;
+        }
+        flush();
+        blendSrcFunc = srcFuncColor;
+        blendDstFunc = dstFuncColor;
+        blendSrcFuncAlpha = srcFuncAlpha;
+        blendDstFuncAlpha = dstFuncAlpha;
+    }
+
+    @Override
+    public int getBlendSrcFunc() {
+        return blendSrcFunc;
+    }
+
+    @Override
+    public int getBlendDstFunc() {
+        return blendDstFunc;
+    }
+
+    @Override
+    public int getBlendSrcFuncAlpha() {
+        return blendSrcFuncAlpha;
+    }
+
+    @Override
+    public int getBlendDstFuncAlpha() {
+        return blendDstFuncAlpha;
+    }
+
+    @Override
+    public Matrix4 getProjectionMatrix() {
+        return projection;
+    }
+
+    @Override
+    public Matrix4 getTransformMatrix() {
+        return transform;
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        if (drawing) {
+            flush();
+        }
+        this.projection.set(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        if (drawing) {
+            flush();
+        }
+        this.transform.set(transform);
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        if (drawing) {
+            flush();
+        }
+        this.shader = shader;
+    }
+
+    @Override
+    public ShaderProgram getShader() {
+        return shader;
+    }
+
+    @Override
+    public boolean isBlendingEnabled() {
+        return blending;
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return drawing;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
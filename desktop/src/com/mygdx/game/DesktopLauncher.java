@@ -6,11 +6,28 @@ import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 
 
 
+// "benchmark [level] [L19|L20] [seconds]" flies a scripted level uncapped and prints the results
 public class DesktopLauncher {
 	public static void main (String[] arg) {
 		Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
-		config.setForegroundFPS(60);
 		config.setTitle("Zepplin Game");
+		if (arg.length > 0 && arg[0].equals("benchmark")) {
+			// Every machine renders the same window with the same weather and detail, as fast as it can
+			if (System.getProperty("zeppelin.seed") == null) {
+				System.setProperty("zeppelin.seed", "0");
+			}
+			if (System.getProperty("zeppelin.quality") == null) {
+				System.setProperty("zeppelin.quality", "FULL");
+			}
+			config.useVsync(false);
+			config.setForegroundFPS(0);
+			config.setIdleFPS(0);
+			config.setWindowedMode(800, 600);
+			config.setResizable(false);
+			new Lwjgl3Application(new MyGdxGame(FlightBenchmark.fromArguments(arg, 1)), config);
+			return;
+		}
+		config.setForegroundFPS(60);
 		new Lwjgl3Application(new MyGdxGame(), config);
 	}
 }
@@ -0,0 +1,359 @@
+package com.mygdx.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts many independent sessions of the game headless, the server being the only place the rules
+ * run. One network thread accepts connections and reads input for all of them without blocking.
+ * Sessions are spread over a few tick threads, each stepping every session it owns once per fixed
+ * tick and sending snapshots straight from there, so a session costs a simulation and a couple of
+ * small buffers rather than a thread. Generating a level and building its simulation happens on a
+ * separate thread, so a new client never holds up input for the others.
+ *
+ * Usage: GameServer [port] [tickRate] [snapshotInterval] [tickThreads]
+ */
+public class GameServer implements Closeable {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 3;
+    public static final int MAX_LEVEL = 100;
+    private static final int REPORT_SECONDS = 10;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final int tickRate;
+    private final int snapshotInterval;
+    private final TickShard[] shards;
+    private final ScheduledExecutorService tickThreads;
+    private final ExecutorService sessionBuilder;
+    // Work handed back to the network thread, which alone touches the selector and its keys
+    private final Queue<Runnable> networkTasks = new ConcurrentLinkedQueue<>();
+    // Sessions on the same level and seed share one layout
+    private final LevelCache levels = new LevelCache(Runnable::run, 64);
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private Thread networkThread;
+    private volatile boolean closed;
+
+    public GameServer(InetSocketAddress address, int tickRate, int snapshotInterval, int tickThreadCount) throws IOException {
+        this.tickRate = tickRate;
+        this.snapshotInterval = snapshotInterval;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        tickThreads = Executors.newScheduledThreadPool(tickThreadCount, runnable -> {
+            Thread thread = new Thread(runnable, "session-ticker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sessionBuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shards = new TickShard[tickThreadCount];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new TickShard(1_000_000_000L / tickRate);
+        }
+    }
+
+    public void start() {
+        long period = 1_000_000_000L / tickRate;
+        for (TickShard shard : shards) {
+            tickThreads.scheduleAtFixedRate(shard, period, period, TimeUnit.NANOSECONDS);
+        }
+        networkThread = new Thread(this::serve, "server-network");
+        networkThread.setDaemon(true);
+        networkThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getSessionCount() {
+        int count = 0;
+        for (TickShard shard : shards) {
+            count += shard.size;
+        }
+        return count;
+    }
+
+    // Session steps taken so far, across all tick threads
+    public long getSteps() {
+        long steps = 0;
+        for (TickShard shard : shards) {
+            steps += shard.steps;
+        }
+        return steps;
+    }
+
+    // Ticks that took longer than the tick period, which means sessions are falling behind real time
+    public long getOverruns() {
+        long overruns = 0;
+        for (TickShard shard : shards) {
+            overruns += shard.overruns;
+        }
+        return overruns;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        tickThreads.shutdownNow();
+        sessionBuilder.shutdownNow();
+        try {
+            if (networkThread != null) {
+                networkThread.join(2000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            drop(key);
+        }
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+    }
+
+    private void serve() {
+        try {
+            while (!closed) {
+                selector.select();
+                Runnable task;
+                while ((task = networkTasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Server network thread stopped: " + e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        }
+    }
+
+    private void read(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer in = connection.in;
+        try {
+            if (channel.read(in) < 0) {
+                drop(key);
+                return;
+            }
+            in.flip();
+            int length;
+            while ((length = ServerProtocol.frameLength(in)) >= 0) {
+                if (!ServerProtocol.isValidLength(in)) {
+                    break;
+                }
+                int end = in.position() + 2 + length;
+                in.position(in.position() + 2);
+                if (!handle(key, connection, in)) {
+                    drop(key);
+                    return;
+                }
+                in.position(end);
+            }
+            if (!ServerProtocol.isValidLength(in)) {
+                drop(key);
+                return;
+            }
+            in.compact();
+        } catch (IOException | RuntimeException e) {
+            // A broken or misbehaving client only takes its own session down
+            drop(key);
+        }
+    }
+
+    private boolean handle(SelectionKey key, Connection connection, ByteBuffer in) {
+        byte type = in.get();
+        if (type == ServerProtocol.HELLO && !connection.greeted) {
+            int level = in.getInt();
+            long seed = in.getLong();
+            if (level < 1 || level > MAX_LEVEL) {
+                return false;
+            }
+            connection.greeted = true;
+            sessionBuilder.execute(() -> build(key, level, seed));
+            return true;
+        }
+        if (type == ServerProtocol.INPUT && connection.session != null) {
+            connection.session.onInput(in.getInt(), in.get() & 0xFF);
+            return true;
+        }
+        return false;
+    }
+
+    // Runs on the session builder thread
+    private void build(SelectionKey key, int level, long seed) {
+        GameSession session = null;
+        try {
+            Simulation simulation = new Simulation(levels.get(level, seed), Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+            session = new GameSession((SocketChannel) key.channel(), simulation, tickRate, snapshotInterval);
+        } catch (RuntimeException e) {
+            System.err.println("Could not start level " + level + ": " + e);
+        }
+        GameSession built = session;
+        networkTasks.add(() -> register(key, built));
+        selector.wakeup();
+    }
+
+    // Runs on the network thread; the client may have gone while its session was being built
+    private void register(SelectionKey key, GameSession session) {
+        if (!key.isValid()) {
+            if (session != null) {
+                session.close();
+            }
+            return;
+        }
+        if (session == null) {
+            drop(key);
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        connection.session = session;
+        try {
+            session.welcome();
+        } catch (IOException e) {
+            drop(key);
+            return;
+        }
+        shards[Math.floorMod(nextShard.getAndIncrement(), shards.length)].joining.add(session);
+    }
+
+    private void drop(SelectionKey key) {
+        key.cancel();
+        Connection connection = (Connection) key.attachment();
+        if (connection != null && connection.session != null) {
+            connection.session.close();
+        } else {
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // Already gone
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ServerProtocol.DEFAULT_PORT;
+        int tickRate = args.length > 1 ? Integer.parseInt(args[1]) : SimulationClock.DEFAULT_TICK_RATE;
+        int snapshotInterval = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SNAPSHOT_INTERVAL;
+        int tickThreadCount = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        GameServer server = new GameServer(new InetSocketAddress(port), tickRate, snapshotInterval, tickThreadCount);
+        server.start();
+        System.out.println("Serving on port " + server.getPort() + " at " + tickRate + " ticks per second");
+        long steps = 0;
+        while (true) {
+            Thread.sleep(REPORT_SECONDS * 1000L);
+            long total = server.getSteps();
+            System.out.println(String.format(Locale.ROOT, "sessions=%d stepsPerSecond=%.0f overruns=%d",
+                    server.getSessionCount(), (total - steps) / (double) REPORT_SECONDS, server.getOverruns()));
+            steps = total;
+        }
+    }
+
+    private static final class Connection {
+        final ByteBuffer in = ByteBuffer.allocate(ServerProtocol.MAX_FRAME * 4);
+        boolean greeted;
+        GameSession session;
+    }
+
+    /**
+     * The sessions one tick thread owns. New sessions queue up and join at the start of a tick;
+     * closed ones are dropped while stepping.
+     */
+    private static final class TickShard implements Runnable {
+        final Queue<GameSession> joining = new ConcurrentLinkedQueue<>();
+        private final ArrayList<GameSession> sessions = new ArrayList<>();
+        private final long periodNanos;
+        volatile int size;
+        volatile long steps;
+        volatile long overruns;
+
+        TickShard(long periodNanos) {
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            GameSession joined;
+            while ((joined = joining.poll()) != null) {
+                sessions.add(joined);
+            }
+            int kept = 0;
+            for (int i = 0; i < sessions.size(); i++) {
+                GameSession session = sessions.get(i);
+                boolean alive;
+                try {
+                    alive = session.tick();
+                } catch (RuntimeException e) {
+                    // An exception would cancel this shard's schedule for every other session
+                    System.err.println("Session failed: " + e);
+                    session.close();
+                    alive = false;
+                }
+                if (alive) {
+                    sessions.set(kept++, session);
+                }
+            }
+            for (int i = sessions.size() - 1; i >= kept; i--) {
+                sessions.remove(i);
+            }
+            size = kept;
+            steps += kept;
+            if (System.nanoTime() - start > periodNanos) {
+                overruns++;
+            }
+        }
+    }
+}
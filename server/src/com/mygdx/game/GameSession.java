@@ -0,0 +1,124 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One client's game on the server: the authoritative simulation, the input the client last sent
+ * and the snapshots sent back. Input arrives on the network thread; stepping and sending happen on
+ * the tick thread that owns the session, so the simulation itself is never shared.
+ */
+final class GameSession {
+    private static final int HISTORY = 32;
+
+    private final SocketChannel channel;
+    private final Simulation simulation;
+    private final float step;
+    private final int tickRate;
+    private final int snapshotInterval;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(ServerProtocol.MAX_FRAME);
+    private final SnapshotCodec.History sent;
+    private final int[] base = new int[SnapshotCodec.FIELDS];
+    private final AtomicBoolean restartRequested = new AtomicBoolean();
+    private volatile int input;
+    private volatile int acknowledgedTick = -1;
+    private volatile boolean closed;
+    private int tick;
+
+    GameSession(SocketChannel channel, Simulation simulation, int tickRate, int snapshotInterval) {
+        this.channel = channel;
+        this.simulation = simulation;
+        this.step = 1f / tickRate;
+        this.tickRate = tickRate;
+        this.snapshotInterval = snapshotInterval;
+        this.sent = new SnapshotCodec.History(HISTORY, snapshotInterval);
+        out.limit(0);
+    }
+
+    // Called on the network thread before the session is handed to a tick thread
+    void welcome() throws IOException {
+        out.clear();
+        int frame = ServerProtocol.beginFrame(out);
+        out.put(ServerProtocol.WELCOME).putInt(tickRate).putInt(snapshotInterval);
+        ServerProtocol.endFrame(out, frame);
+        out.flip();
+        channel.write(out);
+    }
+
+    void onInput(int acknowledgedTick, int input) {
+        // Held flags repeat every tick; a restart must happen once
+        if (PlayerInput.isSet(input, PlayerInput.RESTART)) {
+            restartRequested.set(true);
+        }
+        this.input = input & ~PlayerInput.RESTART;
+        this.acknowledgedTick = acknowledgedTick;
+    }
+
+    /**
+     * Advances one fixed step and sends a snapshot every few ticks. Returns false once the session
+     * is closed, so its tick thread can drop it.
+     */
+    boolean tick() {
+        if (closed) {
+            return false;
+        }
+        int stepInput = input;
+        if (restartRequested.getAndSet(false)) {
+            stepInput |= PlayerInput.RESTART;
+        }
+        simulation.step(step, stepInput);
+        tick++;
+        if (tick % snapshotInterval == 0) {
+            try {
+                sendSnapshot();
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void sendSnapshot() throws IOException {
+        if (out.hasRemaining()) {
+            channel.write(out);
+            if (out.hasRemaining()) {
+                // The client is behind; skipping is safe since every snapshot builds on one it acknowledged
+                return;
+            }
+        }
+        int baseTick = acknowledgedTick;
+        int[] acknowledged = sent.get(baseTick);
+        if (acknowledged != null) {
+            // Copied first, since this snapshot may take over the acknowledged one's slot
+            System.arraycopy(acknowledged, 0, base, 0, SnapshotCodec.FIELDS);
+        } else {
+            baseTick = -1;
+        }
+        int[] state = sent.put(tick);
+        SnapshotCodec.capture(simulation, state);
+
+        out.clear();
+        int frame = ServerProtocol.beginFrame(out);
+        out.put(ServerProtocol.SNAPSHOT).putInt(tick).putInt(baseTick);
+        SnapshotCodec.write(out, state, baseTick >= 0 ? base : null);
+        ServerProtocol.endFrame(out, frame);
+        out.flip();
+        channel.write(out);
+    }
+
+    void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already gone
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+}
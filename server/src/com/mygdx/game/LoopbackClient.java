@@ -0,0 +1,214 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Load test for {@link GameServer}. Opens many sessions from a single thread and flies each one by
+ * the scripted controller's rules, seeing only what the snapshots say. Without a host it starts a
+ * server in this process on loopback. Prints how many snapshots arrived against how many the tick
+ * rate promises, their size with and without deltas, and how the flights ended.
+ *
+ * Usage: LoopbackClient [sessions] [level] [seconds] [host:port]
+ */
+public class LoopbackClient {
+    private static final int HISTORY = 32;
+
+    private long snapshots;
+    private long snapshotBytes;
+    private long fullSnapshotBytes;
+    private long missingBaselines;
+    private final int[] outcomes = new int[Simulation.Outcome.values().length];
+    private final ByteBuffer scratch = ByteBuffer.allocate(ServerProtocol.MAX_FRAME);
+
+    public static void main(String[] args) throws IOException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 70;
+
+        GameServer server = null;
+        InetSocketAddress address;
+        if (args.length > 3) {
+            String[] hostAndPort = args[3].split(":");
+            address = new InetSocketAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+        } else {
+            server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                    SimulationClock.DEFAULT_TICK_RATE, GameServer.DEFAULT_SNAPSHOT_INTERVAL, Runtime.getRuntime().availableProcessors());
+            server.start();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        }
+
+        try {
+            new LoopbackClient().run(address, sessions, level, seconds, server);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private void run(InetSocketAddress address, int sessionCount, int level, int seconds, GameServer server) throws IOException {
+        Selector selector = Selector.open();
+        for (int i = 0; i < sessionCount; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ClientSession session = new ClientSession(channel, level, i);
+            channel.register(selector, SelectionKey.OP_READ, session);
+            session.hello();
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        int tickRate = 0;
+        int snapshotInterval = 0;
+        while (System.nanoTime() < deadline) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                ClientSession session = (ClientSession) key.attachment();
+                if (!session.read()) {
+                    key.cancel();
+                    key.channel().close();
+                }
+                tickRate = Math.max(tickRate, session.tickRate);
+                snapshotInterval = Math.max(snapshotInterval, session.snapshotInterval);
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+
+        double expected = snapshotInterval > 0 ? sessionCount * elapsed * tickRate / snapshotInterval : 0;
+        System.out.println(String.format(Locale.ROOT, "sessions=%d seconds=%.1f snapshots=%d (%.1f%% of %.0f) bytesPerSnapshot=%.1f withoutDeltas=%.1f missingBaselines=%d",
+                sessionCount, elapsed, snapshots, expected > 0 ? snapshots * 100 / expected : 0, expected,
+                snapshotBytes / (double) Math.max(1, snapshots), fullSnapshotBytes / (double) Math.max(1, snapshots), missingBaselines));
+        StringBuilder ended = new StringBuilder("flights:");
+        for (Simulation.Outcome outcome : Simulation.Outcome.values()) {
+            if (outcome != Simulation.Outcome.RUNNING) {
+                ended.append(' ').append(outcome.name().toLowerCase(Locale.ROOT)).append('=').append(outcomes[outcome.ordinal()]);
+            }
+        }
+        System.out.println(ended);
+        if (server != null) {
+            System.out.println(String.format(Locale.ROOT, "server stepsPerSecond=%.0f overruns=%d",
+                    server.getSteps() / elapsed, server.getOverruns()));
+        }
+    }
+
+    private final class ClientSession {
+        private final SocketChannel channel;
+        private final int level;
+        private final long seed;
+        private final LevelLayout layout;
+        private final ByteBuffer in = ByteBuffer.allocate(ServerProtocol.MAX_FRAME * 8);
+        private final ByteBuffer out = ByteBuffer.allocate(ServerProtocol.MAX_FRAME * 4);
+        private final int[] base = new int[SnapshotCodec.FIELDS];
+        private SnapshotCodec.History received;
+        private int tickRate;
+        private int snapshotInterval;
+        private Simulation.Outcome lastOutcome = Simulation.Outcome.RUNNING;
+
+        ClientSession(SocketChannel channel, int level, long seed) {
+            this.channel = channel;
+            this.level = level;
+            this.seed = seed;
+            // Generated here as well, the way a game client would to draw the level
+            this.layout = LevelLayout.generate(level, seed);
+        }
+
+        void hello() throws IOException {
+            int frame = ServerProtocol.beginFrame(out);
+            out.put(ServerProtocol.HELLO).putInt(level).putLong(seed);
+            ServerProtocol.endFrame(out, frame);
+            flush();
+        }
+
+        // False once the connection is gone
+        boolean read() throws IOException {
+            if (channel.read(in) < 0) {
+                return false;
+            }
+            in.flip();
+            int length;
+            while ((length = ServerProtocol.frameLength(in)) >= 0) {
+                int end = in.position() + 2 + length;
+                in.position(in.position() + 2);
+                byte type = in.get();
+                if (type == ServerProtocol.WELCOME) {
+                    tickRate = in.getInt();
+                    snapshotInterval = in.getInt();
+                    received = new SnapshotCodec.History(HISTORY, snapshotInterval);
+                } else if (type == ServerProtocol.SNAPSHOT && received != null) {
+                    onSnapshot(length);
+                }
+                in.position(end);
+            }
+            in.compact();
+            flush();
+            return true;
+        }
+
+        private void onSnapshot(int length) {
+            int tick = in.getInt();
+            int baseTick = in.getInt();
+            int[] baseline = received.get(baseTick);
+            if (baseTick >= 0 && baseline == null) {
+                missingBaselines++;
+                return;
+            }
+            if (baseline != null) {
+                System.arraycopy(baseline, 0, base, 0, SnapshotCodec.FIELDS);
+            }
+            int[] state = received.put(tick);
+            SnapshotCodec.read(in, baseline != null ? base : null, state);
+
+            snapshots++;
+            snapshotBytes += 2 + length;
+            scratch.clear();
+            SnapshotCodec.write(scratch, state, null);
+            fullSnapshotBytes += 2 + 9 + scratch.position();
+
+            Simulation.Outcome outcome = SnapshotCodec.getOutcome(state);
+            int input;
+            if (outcome != Simulation.Outcome.RUNNING) {
+                // Count each flight once, then fly it again to keep the server busy
+                input = lastOutcome == Simulation.Outcome.RUNNING ? PlayerInput.RESTART : PlayerInput.NONE;
+                if (lastOutcome == Simulation.Outcome.RUNNING) {
+                    outcomes[outcome.ordinal()]++;
+                }
+            } else {
+                float speed = SnapshotCodec.getSpeed(state);
+                input = ScriptedController.steer(SnapshotCodec.getX(state), SnapshotCodec.getY(state), speed, speed > 0,
+                        SnapshotCodec.getRemainingTime(state), layout.getDestinationX(), layout.getDestinationY());
+            }
+            lastOutcome = outcome;
+
+            if (out.remaining() < ServerProtocol.MAX_FRAME) {
+                // The server is not reading; the next snapshot is acknowledged instead
+                return;
+            }
+            int frame = ServerProtocol.beginFrame(out);
+            out.put(ServerProtocol.INPUT).putInt(tick).put((byte) input);
+            ServerProtocol.endFrame(out, frame);
+        }
+
+        private void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+        }
+    }
+}
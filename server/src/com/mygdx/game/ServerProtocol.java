@@ -0,0 +1,58 @@
+package com.mygdx.game;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Messages between {@link GameServer} and its clients. Every message is a frame of a two byte
+ * length followed by that many bytes, the first of which is the message type.
+ *
+ * Client to server: HELLO level:int seed:long, sent once; INPUT acknowledgedTick:int input:byte,
+ * holding the {@link PlayerInput} flags until the next one.
+ * Server to client: WELCOME tickRate:int snapshotInterval:int; SNAPSHOT tick:int baseTick:int
+ * followed by the fields {@link SnapshotCodec} wrote against the snapshot of baseTick, or against
+ * zero when baseTick is -1.
+ */
+final class ServerProtocol {
+    static final int DEFAULT_PORT = 7373;
+    static final int MAX_FRAME = 128;
+
+    static final byte HELLO = 1;
+    static final byte INPUT = 2;
+
+    static final byte WELCOME = 1;
+    static final byte SNAPSHOT = 2;
+
+    private ServerProtocol() {
+    }
+
+    // Returns where the frame starts, to be handed back to endFrame once the payload is written
+    static int beginFrame(ByteBuffer out) {
+        int start = out.position();
+        out.putShort((short) 0);
+        return start;
+    }
+
+    static void endFrame(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - 2));
+    }
+
+    /**
+     * Length of the frame at the buffer's position, or -1 while it has not fully arrived.
+     */
+    static int frameLength(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            return -1;
+        }
+        int length = in.getShort(in.position()) & 0xFFFF;
+        return in.remaining() - 2 >= length ? length : -1;
+    }
+
+    // A length no message can have means the stream is not speaking this protocol
+    static boolean isValidLength(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            return true;
+        }
+        int length = in.getShort(in.position()) & 0xFFFF;
+        return length >= 1 && length <= MAX_FRAME - 2;
+    }
+}
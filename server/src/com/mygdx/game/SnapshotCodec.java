@@ -0,0 +1,178 @@
+package com.mygdx.game;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The state a client needs to draw a session, quantized to whole numbers so it compares exactly.
+ * A snapshot is written as a mask of the fields that differ from a baseline the client already
+ * has, followed by each of those differences as a zigzag varint. Between two snapshots a few
+ * ticks apart most fields move a little or not at all, so a snapshot usually takes a few bytes.
+ */
+final class SnapshotCodec {
+    static final int X = 0;
+    static final int Y = 1;
+    static final int SPEED = 2;
+    static final int WIND_X = 3;
+    static final int WIND_Y = 4;
+    static final int REMAINING_TIME = 5;
+    static final int CLOUD_OFFSET_X = 6;
+    static final int CLOUD_OFFSET_Y = 7;
+    static final int OUTCOME = 8;
+    static final int FIELDS = 9;
+
+    // Sixteenths of a pixel, as the ghost tracks use
+    private static final float POSITION_SCALE = 16;
+    private static final float SPEED_SCALE = 64;
+    private static final float WIND_SCALE = 1024;
+    private static final float TIME_SCALE = 1000;
+    private static final Simulation.Outcome[] OUTCOMES = Simulation.Outcome.values();
+
+    private SnapshotCodec() {
+    }
+
+    static void capture(Simulation simulation, int[] state) {
+        Player player = simulation.getPlayer();
+        EnvironmentalManager environment = simulation.getEnvironment();
+        CloudField clouds = environment.getClouds();
+        state[X] = Math.round(player.getX() * POSITION_SCALE);
+        state[Y] = Math.round(player.getY() * POSITION_SCALE);
+        state[SPEED] = Math.round(player.getSpeed() * SPEED_SCALE);
+        state[WIND_X] = Math.round(environment.getWind().x * WIND_SCALE);
+        state[WIND_Y] = Math.round(environment.getWind().y * WIND_SCALE);
+        state[REMAINING_TIME] = Math.round(simulation.getRemainingTime() * TIME_SCALE);
+        state[CLOUD_OFFSET_X] = (int) Math.round(clouds.getOffsetX() * POSITION_SCALE);
+        state[CLOUD_OFFSET_Y] = (int) Math.round(clouds.getOffsetY() * POSITION_SCALE);
+        state[OUTCOME] = simulation.getOutcome().ordinal();
+    }
+
+    /**
+     * Writes state as differences from base, or from all zeros when base is null.
+     */
+    static void write(ByteBuffer out, int[] state, int[] base) {
+        int mask = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            if (state[i] != baseline(base, i)) {
+                mask |= 1 << i;
+            }
+        }
+        out.putShort((short) mask);
+        for (int i = 0; i < FIELDS; i++) {
+            if ((mask & 1 << i) != 0) {
+                writeVarInt(out, zigzag(state[i] - baseline(base, i)));
+            }
+        }
+    }
+
+    static void read(ByteBuffer in, int[] base, int[] state) {
+        int mask = in.getShort() & 0xFFFF;
+        for (int i = 0; i < FIELDS; i++) {
+            state[i] = baseline(base, i) + ((mask & 1 << i) != 0 ? unzigzag(readVarInt(in)) : 0);
+        }
+    }
+
+    static float getX(int[] state) {
+        return state[X] / POSITION_SCALE;
+    }
+
+    static float getY(int[] state) {
+        return state[Y] / POSITION_SCALE;
+    }
+
+    static float getSpeed(int[] state) {
+        return state[SPEED] / SPEED_SCALE;
+    }
+
+    static float getWindX(int[] state) {
+        return state[WIND_X] / WIND_SCALE;
+    }
+
+    static float getWindY(int[] state) {
+        return state[WIND_Y] / WIND_SCALE;
+    }
+
+    static float getRemainingTime(int[] state) {
+        return state[REMAINING_TIME] / TIME_SCALE;
+    }
+
+    static float getCloudOffsetX(int[] state) {
+        return state[CLOUD_OFFSET_X] / POSITION_SCALE;
+    }
+
+    static float getCloudOffsetY(int[] state) {
+        return state[CLOUD_OFFSET_Y] / POSITION_SCALE;
+    }
+
+    static Simulation.Outcome getOutcome(int[] state) {
+        return OUTCOMES[state[OUTCOME]];
+    }
+
+    private static int baseline(int[] base, int field) {
+        return base != null ? base[field] : 0;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in snapshot");
+    }
+
+    /**
+     * The last few snapshots by tick, so either side can find the baseline the other one names.
+     * Ticks are expected to be multiples of the snapshot interval.
+     */
+    static final class History {
+        private final int[][] states;
+        private final int[] ticks;
+        private final int interval;
+
+        History(int size, int interval) {
+            this.states = new int[size][FIELDS];
+            this.ticks = new int[size];
+            this.interval = interval;
+            Arrays.fill(ticks, -1);
+        }
+
+        // The slot to fill for this tick, replacing whatever snapshot used it before
+        int[] put(int tick) {
+            int slot = slot(tick);
+            ticks[slot] = tick;
+            return states[slot];
+        }
+
+        // Null once the snapshot has been overwritten, or if it never arrived
+        int[] get(int tick) {
+            if (tick < 0) {
+                return null;
+            }
+            int slot = slot(tick);
+            return ticks[slot] == tick ? states[slot] : null;
+        }
+
+        private int slot(int tick) {
+            return (tick / interval) % states.length;
+        }
+    }
+}